@@ -0,0 +1,55 @@
+package Benchmark.Jmh;
+
+import Algorithm.Bmaa.Bmaa;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of whole BMAA time steps: the search phase of every agent followed by the move phase.
+ *
+ * Agents move during the benchmark and steps get cheaper as they reach their goals, so each iteration starts a new
+ * run from the problem set's start positions, outside the timed region, and times the same fixed number of steps
+ * of it. The score is the time of those {@link #STEPS} steps, not of a single step.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = ControllerBenchmark.STEPS)
+@Measurement(iterations = 10, batchSize = ControllerBenchmark.STEPS)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+    /**
+     * The number of time steps timed in each iteration, few enough that most agents are still on their way.
+     */
+    public static final int STEPS = 32;
+
+    @Param({"1", "4"})
+    public int searchWorkers;
+
+    private Bmaa bmaa;
+
+    @Setup(Level.Iteration)
+    public void setUp(MapState state) {
+        bmaa = new Bmaa(state.graph,
+                state.problemSet.getS(),
+                state.problemSet.getT(),
+                Bmaa.DEFAULT_EXPANSIONS,
+                Bmaa.DEFAULT_VISION,
+                Bmaa.DEFAULT_MOVES,
+                false,
+                false,
+                searchWorkers);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        bmaa.shutdown();
+    }
+
+    @Benchmark
+    public void bmaaTimeStep() {
+        bmaa.timeStep();
+    }
+}
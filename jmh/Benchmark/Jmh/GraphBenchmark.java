@@ -0,0 +1,34 @@
+package Benchmark.Jmh;
+
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of neighbour iteration on the graphs loaded from benchmark maps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    /**
+     * Visit the neighbours of every node in the map and read the weight of each edge, as an expansion does.
+     */
+    @Benchmark
+    public void getNeigbours(MapState state, Blackhole blackhole) {
+        Graph graph = state.graph;
+        double total = 0;
+        for (Node node : state.nodes) {
+            for (Node neighbour : graph.getNeigbours(node)) {
+                total += graph.getEdge(node, neighbour).getWeight();
+            }
+        }
+        blackhole.consume(total);
+    }
+}
@@ -0,0 +1,70 @@
+package Benchmark.Jmh;
+
+import DataStructures.Heap;
+import DataStructures.PriorityQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the open list data structures used by the searches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeapBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private Double[] priorities;
+    private double[] decreasedPriorities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        priorities = new Double[size];
+        decreasedPriorities = new double[size];
+        for (int i = 0; i < size; i++) {
+            priorities[i] = random.nextDouble() * 1000;
+            decreasedPriorities[i] = priorities[i] * random.nextDouble();
+        }
+    }
+
+    /**
+     * Add every priority to a Heap, then drain it with removeMin.
+     */
+    @Benchmark
+    public void heapAddRemoveMin(Blackhole blackhole) {
+        Heap<Double> heap = new Heap<>();
+        for (Double priority : priorities) {
+            heap.add(priority);
+        }
+        while (!heap.isEmpty()) {
+            blackhole.consume(heap.removeMin());
+        }
+    }
+
+    /**
+     * Fill a PriorityQueue, decrease the priority of every element once, then drain it.
+     * This is the access pattern of A* re-opening nodes through a cheaper parent.
+     */
+    @Benchmark
+    public void priorityQueueUpdate(Blackhole blackhole) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        for (int i = 0; i < size; i++) {
+            queue.put(i, priorities[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            queue.update(i, decreasedPriorities[i]);
+        }
+        while (!queue.isEmpty()) {
+            blackhole.consume(queue.get());
+        }
+    }
+}
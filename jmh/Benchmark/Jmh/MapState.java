@@ -0,0 +1,48 @@
+package Benchmark.Jmh;
+
+import Benchmark.MapCache;
+import Benchmark.ProblemSet;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared JMH state holding a benchmark map and a problem set on it.
+ *
+ * The benchmarks in this package are a separate source root from the algorithms and need JMH
+ * (org.openjdk.jmh:jmh-core and its annotation processor) on the classpath. They are run from the repository root
+ * so that map paths resolve, for example:
+ *
+ *     java -cp &lt;classes&gt;:&lt;jmh jars&gt; org.openjdk.jmh.Main Benchmark.Jmh -p agentCount=400
+ *
+ * The map and agent count are JMH parameters, so any of {@link Benchmark.Benchmark#BMAA_TEST_MAPS} and
+ * {@link Benchmark.Benchmark#BMAA_AGENT_COUNTS} can be supplied with -p.
+ */
+@State(Scope.Benchmark)
+public class MapState {
+
+    /**
+     * Problems are generated from a fixed seed so every fork benchmarks the same instance.
+     */
+    private static final long SEED = 42;
+
+    @Param({"maps/DAO-lak307d (84*84).map", "maps/BGII-AR0504SR (512*512).map"})
+    public String map;
+
+    @Param({"100", "400", "1000", "2000"})
+    public int agentCount;
+
+    public Graph graph;
+    public ProblemSet problemSet;
+    public List<Node> nodes;
+
+    @Setup(Level.Trial)
+    public void load() {
+        graph = MapCache.get(map);
+        problemSet = ProblemSet.randomProblemSet(graph, agentCount, SEED);
+        nodes = new ArrayList<>(graph.nodes());
+    }
+}
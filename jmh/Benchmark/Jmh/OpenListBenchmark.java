@@ -0,0 +1,145 @@
+package Benchmark.Jmh;
+
+import DataStructures.BucketPriorityQueue;
+import DataStructures.IntPriorityQueue;
+import DataStructures.OpenList;
+import DataStructures.PriorityQueue;
+import DataStructures.graph.Graph;
+import DataStructures.graph.NeighbourCursor;
+import DataStructures.graph.Node;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the open lists on the searches they are used for: each benchmark runs the same A* search, guided
+ * by the octile distance, from the start to the goal of one agent of the problem set, cycling through the agents.
+ * Only the open list differs, so the differences between the benchmarks are the cost of the open list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OpenListBenchmark {
+
+    private Graph graph;
+    private Node[] starts;
+    private Node[] goals;
+    private int next;
+
+    private NeighbourCursor neighbours;
+    private double[] gCosts;
+    private boolean[] closed;
+
+    private IntPriorityQueue heap;
+    private BucketPriorityQueue buckets;
+
+    @Setup(Level.Trial)
+    public void setUp(MapState state) {
+        graph = state.graph;
+        starts = state.problemSet.getS().toArray(new Node[0]);
+        goals = state.problemSet.getT().toArray(new Node[0]);
+        next = 0;
+
+        neighbours = graph.neighbourCursor();
+        gCosts = new double[graph.indexBound()];
+        closed = new boolean[graph.indexBound()];
+
+        heap = new IntPriorityQueue(graph.indexBound());
+        buckets = new BucketPriorityQueue(graph.indexBound());
+    }
+
+    /**
+     * The generic heap of entries kept in a hash map, which boxes every node index.
+     */
+    @Benchmark
+    public void priorityQueueSearch(Blackhole blackhole) {
+        Node goal = goals[next];
+        int start = starts[next].getIndex();
+        next = (next + 1) % starts.length;
+        Arrays.fill(gCosts, Double.POSITIVE_INFINITY);
+        Arrays.fill(closed, false);
+
+        PriorityQueue<Integer> open = new PriorityQueue<>();
+        open.put(start, 0);
+        gCosts[start] = 0;
+        while (!open.isEmpty()) {
+            int index = open.get();
+            closed[index] = true;
+            if (index == goal.getIndex()) {
+                break;
+            }
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                double g = gCosts[index] + neighbours.cost();
+                if (!closed[m] && g < gCosts[m]) {
+                    double f = g + graph.getNodeByIndex(m).octileDistance(goal);
+                    if (open.contains(m)) {
+                        open.update(m, f);
+                    }
+                    else {
+                        open.put(m, f);
+                    }
+                    gCosts[m] = g;
+                }
+            }
+        }
+        blackhole.consume(gCosts[goal.getIndex()]);
+    }
+
+    /**
+     * The binary heap over primitive arrays the agents search with by default.
+     */
+    @Benchmark
+    public void intPriorityQueueSearch(Blackhole blackhole) {
+        blackhole.consume(search(heap));
+    }
+
+    /**
+     * The bucket queue agents can choose instead.
+     */
+    @Benchmark
+    public void bucketQueueSearch(Blackhole blackhole) {
+        blackhole.consume(search(buckets));
+    }
+
+    private double search(OpenList open) {
+        Node goal = goals[next];
+        int start = starts[next].getIndex();
+        next = (next + 1) % starts.length;
+        Arrays.fill(gCosts, Double.POSITIVE_INFINITY);
+        Arrays.fill(closed, false);
+
+        open.clear();
+        open.put(start, 0);
+        gCosts[start] = 0;
+        while (!open.isEmpty()) {
+            int index = open.get();
+            closed[index] = true;
+            if (index == goal.getIndex()) {
+                break;
+            }
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                double g = gCosts[index] + neighbours.cost();
+                if (!closed[m] && g < gCosts[m]) {
+                    double f = g + graph.getNodeByIndex(m).octileDistance(goal);
+                    if (open.contains(m)) {
+                        open.update(m, f);
+                    }
+                    else {
+                        open.put(m, f);
+                    }
+                    gCosts[m] = g;
+                }
+            }
+        }
+        return gCosts[goal.getIndex()];
+    }
+}
@@ -0,0 +1,120 @@
+package Benchmark.Jmh;
+
+import Algorithm.Bmaa.BmaaAgent;
+import Algorithm.Occupancy;
+import Algorithm.Time;
+import Algorithm.Waypoint.WaypointAgent;
+import Algorithm.Waypoint.WaypointBmaa;
+import Algorithm.Bmaa.Bmaa;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the searches run by individual agents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private Time time;
+    private List<BmaaAgent> bmaaAgents;
+    private List<BmaaAgent> bucketQueueAgents;
+    private List<BmaaAgent> integerCostAgents;
+    private List<WaypointAgent> waypointAgents;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp(MapState state) {
+        time = new Time();
+        Occupancy occupancy = new Occupancy(state.graph);
+        bmaaAgents = new ArrayList<>();
+        bucketQueueAgents = new ArrayList<>();
+        // The agents with bucket queues and integer costs are separate simulations, with their own occupancies
+        Occupancy bucketQueueOccupancy = new Occupancy(state.graph);
+        integerCostAgents = new ArrayList<>();
+        Occupancy integerCostOccupancy = new Occupancy(state.graph);
+        waypointAgents = new ArrayList<>();
+        for (int i = 0; i < state.agentCount; i++) {
+            bmaaAgents.add(new BmaaAgent(state.graph, occupancy,
+                    state.problemSet.getS().get(i),
+                    state.problemSet.getT().get(i),
+                    Bmaa.DEFAULT_EXPANSIONS, Bmaa.DEFAULT_VISION, Bmaa.DEFAULT_MOVES, time));
+            BmaaAgent bucketQueueAgent = new BmaaAgent(state.graph, bucketQueueOccupancy,
+                    state.problemSet.getS().get(i),
+                    state.problemSet.getT().get(i),
+                    Bmaa.DEFAULT_EXPANSIONS, Bmaa.DEFAULT_VISION, Bmaa.DEFAULT_MOVES, time);
+            bucketQueueAgent.setBucketQueue(true);
+            bucketQueueAgents.add(bucketQueueAgent);
+            BmaaAgent integerCostAgent = new BmaaAgent(state.graph, integerCostOccupancy,
+                    state.problemSet.getS().get(i),
+                    state.problemSet.getT().get(i),
+                    Bmaa.DEFAULT_EXPANSIONS, Bmaa.DEFAULT_VISION, Bmaa.DEFAULT_MOVES, time);
+            integerCostAgent.setIntegerCosts(true);
+            integerCostAgents.add(integerCostAgent);
+            waypointAgents.add(new WaypointAgent(state.graph, occupancy,
+                    state.problemSet.getS().get(i),
+                    state.problemSet.getT().get(i),
+                    WaypointBmaa.DEFAULT_EXPANSIONS, WaypointBmaa.DEFAULT_VISION, WaypointBmaa.DEFAULT_MOVES,
+                    time, 10 * Math.sqrt(2)));
+        }
+        next = 0;
+    }
+
+    /**
+     * One bounded search (and heuristic update) for every agent, the work of a single BMAA search phase.
+     * Time is advanced past each agent's replanning limit first so every agent really searches.
+     */
+    @Benchmark
+    public void bmaaSearchPhase() {
+        for (int i = 0; i <= Bmaa.DEFAULT_MOVES; i++) {
+            time.incrementTimeStep();
+        }
+        for (BmaaAgent agent : bmaaAgents) {
+            agent.searchPhase();
+        }
+    }
+
+    /**
+     * As {@link #bmaaSearchPhase()}, with every agent keeping its open list in a bucket queue.
+     */
+    @Benchmark
+    public void bmaaSearchPhaseBucketQueue() {
+        for (int i = 0; i <= Bmaa.DEFAULT_MOVES; i++) {
+            time.incrementTimeStep();
+        }
+        for (BmaaAgent agent : bucketQueueAgents) {
+            agent.searchPhase();
+        }
+    }
+
+    /**
+     * As {@link #bmaaSearchPhase()}, with every agent searching with integer costs.
+     */
+    @Benchmark
+    public void bmaaSearchPhaseIntegerCosts() {
+        for (int i = 0; i <= Bmaa.DEFAULT_MOVES; i++) {
+            time.incrementTimeStep();
+        }
+        for (BmaaAgent agent : integerCostAgents) {
+            agent.searchPhase();
+        }
+    }
+
+    /**
+     * One unbounded A* full path, cycling through the agents of the problem set.
+     */
+    @Benchmark
+    public void waypointComputeFullPath(Blackhole blackhole) {
+        WaypointAgent agent = waypointAgents.get(next);
+        next = (next + 1) % waypointAgents.size();
+        blackhole.consume(agent.computeFullPath());
+    }
+}
@@ -7,6 +7,23 @@ public abstract class Agent {
     private Node start;
     private Node goal;
     private Node currentNode;
+    private int id;
+
+    /**
+     * Returns the id the agent was given when it registered with its simulation's {@link Occupancy}.
+     * @return the id of the agent
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Set the id of the agent, this is done by {@link Occupancy#register(Agent)}.
+     * @param id the id of the agent
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
 
     /**
      * Returns the Node which the agent started at in the beginning of the computation.
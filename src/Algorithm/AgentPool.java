@@ -0,0 +1,104 @@
+package Algorithm;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Runs a per-agent phase of an algorithm, such as the search phase, across a fork/join pool of worker threads.
+ *
+ * With a single worker the phase runs on the calling thread in list order. With more workers the list is split
+ * recursively into ranges which are run in parallel, and {@link #forEach(List, Consumer)} returns once every
+ * agent has been processed. The action must only touch state owned by the agent it is given, or state no other
+ * agent writes during the phase.
+ *
+ * The pool is created on first use and released by {@link #shutdown()}; using the pool again afterwards creates
+ * a fresh one.
+ */
+public class AgentPool {
+
+    /**
+     * Ranges of at most this many agents are run on a single worker without splitting further.
+     */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private final int workers;
+    private ForkJoinPool pool;
+
+    /**
+     * @param workers the number of worker threads to use, 1 runs every phase on the calling thread
+     */
+    public AgentPool(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1 but was " + workers);
+        }
+        this.workers = workers;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Apply an action to every agent, in parallel if the pool has more than one worker.
+     * @param agents the agents to apply the action to
+     * @param action the action to apply
+     * @param <A> the type of agent
+     */
+    public <A> void forEach(List<A> agents, Consumer<A> action) {
+        if (workers == 1 || agents.size() <= SPLIT_THRESHOLD) {
+            for (A agent : agents) {
+                action.accept(agent);
+            }
+            return;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(workers);
+        }
+        pool.invoke(new Range<>(agents, action, 0, agents.size()));
+    }
+
+    /**
+     * Release the worker threads of the pool.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private static class Range<A> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<A> agents;
+        private final Consumer<A> action;
+        private final int from;
+        private final int to;
+
+        private Range(List<A> agents, Consumer<A> action, int from, int to) {
+            this.agents = agents;
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    action.accept(agents.get(i));
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Range<>(agents, action, from, middle),
+                        new Range<>(agents, action, middle, to));
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package Algorithm.Bmaa;
 
+import Algorithm.AgentPool;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Occupancy;
 import Algorithm.Time;
 import Benchmark.Result;
 import DataStructures.graph.Graph;
@@ -15,6 +18,7 @@ public class Bmaa{
     public static final int DEFAULT_EXPANSIONS = 32;
     public static final double DEFAULT_VISION = Math.sqrt(2);
     public static final int DEFAULT_MOVES = 32;
+    public static final int DEFAULT_SEARCH_WORKERS = 1;
 
 
     private final int EXPANSIONS;
@@ -26,7 +30,17 @@ public class Bmaa{
     private Graph graph;
     private List<BmaaAgent> agents;
 
-    private Time time = new Time();
+    private Time time;
+
+    /**
+     * Which agent occupies each node during this run. The graph itself is never modified, so it can be shared.
+     */
+    private Occupancy occupancy;
+
+    /**
+     * Runs the search phase of every agent, in parallel when configured with more than one worker.
+     */
+    private AgentPool searchPool;
 
     /**
      * The time limit imposed on runtime of the algorithm, in milliSeconds
@@ -35,6 +49,30 @@ public class Bmaa{
 
     public Bmaa(Graph graph, List<Node> s, List<Node> t,
                 int expansions, double vision, int moves, boolean push, boolean flow) {
+        this(graph, s, t, expansions, vision, moves, push, flow, DEFAULT_SEARCH_WORKERS);
+    }
+
+    /**
+     * Create an instance of the algorithm whose search phase runs across the given number of worker threads.
+     * Only agent searches run in parallel; moves are still made one agent at a time in a fixed order, so the
+     * outcome of each time step is the same as with a single worker.
+     * @param searchWorkers the number of threads used for the search phase, 1 to search on the calling thread
+     */
+    public Bmaa(Graph graph, List<Node> s, List<Node> t,
+                int expansions, double vision, int moves, boolean push, boolean flow, int searchWorkers) {
+        this(graph, s, t, expansions, vision, moves, push, flow, searchWorkers, new Time());
+    }
+
+    /**
+     * Create an instance of the algorithm that measures its run time, and so its time limits, with the given
+     * time keeper. Use {@link Time#threadCpuTime()} to give each run a CPU time budget when several runs share
+     * the machine, or {@link Time#stepCount(long)} for runs that are reproducible under any load.
+     * @param time the time keeper of the run
+     */
+    public Bmaa(Graph graph, List<Node> s, List<Node> t,
+                int expansions, double vision, int moves, boolean push, boolean flow, int searchWorkers, Time time) {
+        this.time = time;
+        this.searchPool = new AgentPool(searchWorkers);
         this.EXPANSIONS = expansions;
         this.VISION = vision;
         this.MOVES = moves;
@@ -42,16 +80,52 @@ public class Bmaa{
         this.FLOW = flow;
 
         this.graph = graph;
+        this.occupancy = new Occupancy(graph);
         createAgents(graph, s, t, expansions, vision, moves, push, flow);
     }
 
+    /**
+     * Give every agent the same heuristic for estimating distances to nodes it has not learned a value for, such
+     * as a {@link Algorithm.Heuristics.DifferentialHeuristic} built for the graph. Must be set before running.
+     * @param heuristic the heuristic provider
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        for (BmaaAgent agent : agents) {
+            agent.setHeuristic(heuristic);
+        }
+    }
+
+    /**
+     * Have every agent keep its open list in a bucket queue, see {@link BmaaAgent#setBucketQueue(boolean)}. Must be
+     * set before running.
+     */
+    public void useBucketQueue() {
+        for (BmaaAgent agent : agents) {
+            agent.setBucketQueue(true);
+        }
+    }
+
+    /**
+     * Have every agent search with costs scaled to integers, see {@link BmaaAgent#setIntegerCosts(boolean)}. Must be
+     * set before running.
+     */
+    public void useIntegerCosts() {
+        for (BmaaAgent agent : agents) {
+            agent.setIntegerCosts(true);
+        }
+    }
+
     public Result runWithTimeLimit(Duration timeLimit) {
         this.timeLimit = timeLimit.toMillis();
 
-        while (!allAgentsAtGoals() && underTimeLimit()) {
-            time.startStopWatch();
-            npcController();
-            time.stopStopWatch();
+        try {
+            while (!allAgentsAtGoals() && underTimeLimit()) {
+                time.startStopWatch();
+                npcController();
+                time.stopStopWatch();
+            }
+        } finally {
+            searchPool.shutdown();
         }
         return collectResults();
     }
@@ -66,19 +140,23 @@ public class Bmaa{
     public List<Result> runWithMultipleTimeLimits(List<Integer> stopTimes) {
         List<Result> results = new ArrayList<>();
 
-        for (int stopTime : stopTimes) {
-            this.timeLimit = stopTime;
-            while (!allAgentsAtGoals() && underTimeLimit()) {
-                time.startStopWatch();
-                npcController();
-                time.stopStopWatch();
-            }
-            try {
-                results.add(collectResults());
-            } catch (NoAgentAtGoalException e) {
-                e.printStackTrace();
-                System.out.println("Skipping " + stopTime + "ms timelimit");
+        try {
+            for (int stopTime : stopTimes) {
+                this.timeLimit = stopTime;
+                while (!allAgentsAtGoals() && underTimeLimit()) {
+                    time.startStopWatch();
+                    npcController();
+                    time.stopStopWatch();
+                }
+                try {
+                    results.add(collectResults());
+                } catch (NoAgentAtGoalException e) {
+                    e.printStackTrace();
+                    System.out.println("Skipping " + stopTime + "ms timelimit");
+                }
             }
+        } finally {
+            searchPool.shutdown();
         }
         return results;
     }
@@ -86,19 +164,23 @@ public class Bmaa{
     public List<Result> runWithMultipleTimeLimitsWithMovementCost(List<Integer> stopTimes) {
         List<Result> results = new ArrayList<>();
 
-        for (int stopTime : stopTimes) {
-            this.timeLimit = stopTime;
-            while (!allAgentsAtGoals() && underTimeLimit()) {
-                time.startStopWatch();
-                npcController();
-                time.stopStopWatch();
-            }
-            try {
-                results.add(collectResults());
-            } catch (NoAgentAtGoalException e) {
-                e.printStackTrace();
-                System.out.println("Skipping " + stopTime + "ms timelimit");
+        try {
+            for (int stopTime : stopTimes) {
+                this.timeLimit = stopTime;
+                while (!allAgentsAtGoals() && underTimeLimit()) {
+                    time.startStopWatch();
+                    npcController();
+                    time.stopStopWatch();
+                }
+                try {
+                    results.add(collectResults());
+                } catch (NoAgentAtGoalException e) {
+                    e.printStackTrace();
+                    System.out.println("Skipping " + stopTime + "ms timelimit");
+                }
             }
+        } finally {
+            searchPool.shutdown();
         }
         return results;
     }
@@ -172,20 +254,36 @@ public class Bmaa{
 
     // ------------------------------------------------------------------------------------------
 
+    /**
+     * Run a single time step of the algorithm: every agent searches and then tries to move once.
+     * The step is timed by the algorithm's stopwatch as it would be during a run.
+     */
+    public void timeStep() {
+        time.startStopWatch();
+        npcController();
+        time.stopStopWatch();
+    }
+
+    /**
+     * Release the worker threads used by the search phase, if any. Only needed after driving the algorithm
+     * through {@link #timeStep()}; the run methods release them on their own.
+     */
+    public void shutdown() {
+        searchPool.shutdown();
+    }
+
     private void npcController() {
-        for (BmaaAgent agent : agents) {
-            agent.searchPhase();
-        }
+        searchPool.forEach(agents, BmaaAgent::searchPhase);
 
         for (BmaaAgent agent : agents) {
             if (agent.nextNodeIsDefined()) {
                 Node n = agent.getNextNode();
 
-                if (PUSH && n.isOccupied() && n.getAgent().atGoal()) {
-                    n.getAgent().push();
+                if (PUSH && occupancy.isOccupied(n) && occupancy.getAgent(n).atGoal()) {
+                    occupancy.getAgent(n).push();
                 }
 
-                if (!n.isOccupied()) {
+                if (!occupancy.isOccupied(n)) {
                     agent.moveToNextOnPath();
                 }
             }
@@ -195,19 +293,17 @@ public class Bmaa{
     }
 
     private void npcControllerWithMovementCost() {
-        for (BmaaAgent agent : agents) {
-            agent.searchPhase();
-        }
+        searchPool.forEach(agents, BmaaAgent::searchPhase);
 
         for (BmaaAgent agent : agents) {
             if (agent.nextNodeIsDefined()) {
                 Node n = agent.getNextNode();
 
-                if (PUSH && n.isOccupied() && n.getAgent().atGoal()) {
-                    n.getAgent().push();
+                if (PUSH && occupancy.isOccupied(n) && occupancy.getAgent(n).atGoal()) {
+                    occupancy.getAgent(n).push();
                 }
 
-                if (!n.isOccupied()) {
+                if (!occupancy.isOccupied(n)) {
                     agent.moveToNextOnPath();
                 }
             }
@@ -227,7 +323,7 @@ public class Bmaa{
                               int expansions, double vision, int moves, boolean push, boolean flow) {
         agents = new ArrayList<>();
         for (int i=0; i<s.size(); i++) {
-            agents.add(new BmaaAgent(graph, s.get(i), t.get(i), expansions, vision, moves, time));
+            agents.add(new BmaaAgent(graph, occupancy, s.get(i), t.get(i), expansions, vision, moves, time));
         }
     }
 
@@ -1,9 +1,16 @@
 package Algorithm.Bmaa;
 
 import Algorithm.Agent;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Heuristics.LearnedHeuristics;
+import Algorithm.Heuristics.OctileHeuristic;
+import Algorithm.Occupancy;
+import Algorithm.SearchWorkspace;
 import Algorithm.Time;
-import DataStructures.PriorityQueue;
+import DataStructures.IntKeyPriorityQueue;
+import DataStructures.OpenList;
 import DataStructures.graph.Graph;
+import DataStructures.graph.NeighbourCursor;
 import DataStructures.graph.Node;
 
 import java.util.*;
@@ -11,6 +18,8 @@ import java.util.*;
 public class BmaaAgent extends Agent {
 
     private Graph graph;
+    private NeighbourCursor neighbours;
+    private Occupancy occupancy;
 
     private Node start;
     private Node goal;
@@ -34,11 +43,17 @@ public class BmaaAgent extends Agent {
 
     private Time time;
 
-    private HashMap<Node, Double> heuristics = new HashMap<>();
+    private LearnedHeuristics heuristics = new LearnedHeuristics();
+    private HeuristicProvider heuristic = OctileHeuristic.INSTANCE;
+    private boolean bucketQueue = false;
+    private boolean integerCosts = false;
 
-    public BmaaAgent(Graph graph, Node start, Node goal,
+    public BmaaAgent(Graph graph, Occupancy occupancy, Node start, Node goal,
                  int expansions, double vision, int moves, Time time) {
         this.graph = graph;
+        this.neighbours = graph.neighbourCursor();
+        this.occupancy = occupancy;
+        occupancy.register(this);
         this.start = start;
         this.goal = goal;
 
@@ -74,128 +89,203 @@ public class BmaaAgent extends Agent {
 
     public void searchPhase() {
         if (!nextNodeIsDefined() || time.getTimeSteps() > limit) {
-            SearchState state = search();
-            PriorityQueue<Node> open = state.getOpen();
-            Map<Node, Node> closed = state.getClosed();
-            Map<Node, Double> gCosts = state.getGCosts();
-
-            if (!open.isEmpty()) {
-                Node n = open.get();
-                double f = gCosts.get(n) + h(n);
-                updateHeuristicValues(closed,gCosts, f);
-                limit = time.getTimeSteps() + moves;
+            heuristics.beginSearch();
+            if (integerCosts) {
+                SearchWorkspace workspace = searchInteger();
+                IntKeyPriorityQueue open = workspace.getIntegerOpen();
+
+                if (!open.isEmpty()) {
+                    int n = open.get();
+                    long f = (long) workspace.getIntegerGCost(n) + hInteger(graph.getNodeByIndex(n));
+                    updateHeuristicValuesInteger(workspace, f);
+                    limit = time.getTimeSteps() + moves;
+                }
+            }
+            else {
+                SearchWorkspace workspace = search();
+                OpenList open = openList(workspace);
+
+                if (!open.isEmpty()) {
+                    int n = open.get();
+                    double f = workspace.getGCost(n) + h(graph.getNodeByIndex(n));
+                    updateHeuristicValues(workspace, f);
+                    limit = time.getTimeSteps() + moves;
+                }
             }
+            heuristics.endSearch();
         }
     }
 
-    private SearchState search() {
+    /**
+     * Run a bounded A* search from the agents current node using the calling thread's search workspace.
+     * @return the workspace holding the open list, closed set and g-costs of the search
+     */
+    private SearchWorkspace search() {
         int exp = 0;
-        PriorityQueue<Node> open = new PriorityQueue<>();
-        Map<Node, Node> closed = new HashMap<>();
-        Map<Node, Double> gCosts = new HashMap<>();
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        workspace.reset();
+        OpenList open = openList(workspace);
 
-        open.put(currentNode, 0);
-        gCosts.put(currentNode, 0.00);
+        int start = currentNode.getIndex();
+        open.put(start, 0);
+        workspace.record(start, 0.00, SearchWorkspace.NO_PARENT);
 
-        // TODO collapse parent into open data structure?
-        Map<Node, Node> parents = new HashMap<>();
-        parents.put(currentNode, null);
-
-        Node n = null;
+        int index = start;
         while (!open.isEmpty()) {
-            n = open.get();
-            closed.put(n, parents.get(n));
+            index = open.get();
+            Node n = graph.getNodeByIndex(index);
+            workspace.close(index);
 
             if (n == goal || exp > expansions) {
-                buildPath(closed, n);
-                return new SearchState(open, closed, gCosts);
+                buildPath(workspace, index);
+                return workspace;
             }
 
-            for (Node neighbour : graph.getNeigbours(n)) {
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                Node neighbour = graph.getNodeByIndex(m);
                 double distance = n.euclideanDistance(neighbour);
 
-                if ((neighbour.isOccupied() && (neighbour != goal)) && distance < vision) {
+                if ((occupancy.isOccupied(neighbour) && (neighbour != goal)) && distance < vision) {
                     continue;
                 }
 
-                if (!closed.containsKey(neighbour)) {
-                    if (open.contains(neighbour)) {
-                        double gCostOnRecord = gCosts.get(neighbour);
-                        double newGCost = gCosts.get(n) + graph.getEdge(n, neighbour).getWeight();
+                if (!workspace.isClosed(m)) {
+                    double g = workspace.getGCost(index) + neighbours.cost();
 
-                        if (newGCost < gCostOnRecord) {
-                            open.update(neighbour, newGCost + h(neighbour));
-                            parents.replace(neighbour, n);
-                            gCosts.replace(neighbour, newGCost);
+                    if (open.contains(m)) {
+                        if (g < workspace.getGCost(m)) {
+                            open.update(m, g + h(neighbour));
+                            workspace.record(m, g, index);
                         }
                     }
                     else {
-                        double g = gCosts.get(n) + graph.getEdge(n, neighbour).getWeight();
+                        open.put(m, g + h(neighbour));
+                        workspace.record(m, g, index);
+                    }
+                }
+            }
+            exp += 1;
+        }
+        buildPath(workspace, index);
+        return workspace;
+    }
+
+    /**
+     * The bounded search of {@link #search()} with g-costs, heuristic values and open list keys scaled to integers
+     * with {@link DataStructures.graph.IntegerCosts}, so f-costs are compared exactly.
+     * @return the workspace holding the integer open list, closed set and integer g-costs of the search
+     */
+    private SearchWorkspace searchInteger() {
+        int exp = 0;
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        workspace.reset();
+        IntKeyPriorityQueue open = workspace.getIntegerOpen();
+
+        int start = currentNode.getIndex();
+        open.put(start, 0);
+        workspace.recordInteger(start, 0, SearchWorkspace.NO_PARENT);
+
+        int index = start;
+        while (!open.isEmpty()) {
+            index = open.get();
+            Node n = graph.getNodeByIndex(index);
+            workspace.close(index);
+
+            if (n == goal || exp > expansions) {
+                buildPath(workspace, index);
+                return workspace;
+            }
 
-                        open.put(neighbour, g + h(neighbour));
-                        parents.put(neighbour, n);
-                        gCosts.put(neighbour, g);
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                Node neighbour = graph.getNodeByIndex(m);
+                double distance = n.euclideanDistance(neighbour);
+
+                if ((occupancy.isOccupied(neighbour) && (neighbour != goal)) && distance < vision) {
+                    continue;
+                }
+
+                if (!workspace.isClosed(m)) {
+                    int g = workspace.getIntegerGCost(index) + neighbours.integerCost();
+
+                    if (open.contains(m)) {
+                        if (g < workspace.getIntegerGCost(m)) {
+                            open.update(m, fInteger(g, neighbour));
+                            workspace.recordInteger(m, g, index);
+                        }
+                    }
+                    else {
+                        open.put(m, fInteger(g, neighbour));
+                        workspace.recordInteger(m, g, index);
                     }
                 }
             }
             exp += 1;
         }
-        buildPath(closed, n);
-        return new SearchState(open, closed, gCosts);
+        buildPath(workspace, index);
+        return workspace;
     }
 
-    private void buildPath(Map<Node, Node> closed, Node n) {
+    private void buildPath(SearchWorkspace workspace, int n) {
         ArrayList<Node> newPath = new ArrayList<>();
-        Node x = n;
-        Node parent = closed.get(n);
-        while (parent != null) {
-            newPath.add(0, x);
-            x = parent;
-            parent = closed.get(x);
+        int x = n;
+        while (x != SearchWorkspace.NO_PARENT) {
+            newPath.add(graph.getNodeByIndex(x));
+            x = workspace.getParent(x);
         }
-        newPath.add(0, x);
+        Collections.reverse(newPath);
 
         this.pathPrefix = newPath;
         this.currentPathIndex = 0;
     }
 
-    private void updateHeuristicValues(Map<Node, Node> closed, Map<Node, Double> gCosts, double f) {
-        for (Node node : closed.keySet()) {
-            heuristics.replace(node, f - gCosts.get(node));
+    private void updateHeuristicValues(SearchWorkspace workspace, double f) {
+        for (int i = 0; i < workspace.closedCount(); i++) {
+            int node = workspace.closedNode(i);
+            heuristics.learn(node, (float) (f - workspace.getGCost(node)));
         }
     }
 
-    private double h(Node n) {
-        if (heuristics.containsKey(n)) {
-            return heuristics.get(n);
+    private void updateHeuristicValuesInteger(SearchWorkspace workspace, long f) {
+        for (int i = 0; i < workspace.closedCount(); i++) {
+            int node = workspace.closedNode(i);
+            heuristics.learnInteger(node, (int) Math.min(Integer.MAX_VALUE, f - workspace.getIntegerGCost(node)));
         }
-        double h = n.octileDistance(goal);
-        heuristics.put(n, h);
-        return h;
     }
 
-    private class SearchState {
-        private PriorityQueue<Node> open;
-        private Map<Node, Node> closed;
-        private Map<Node, Double> gCosts;
-
-        public SearchState(PriorityQueue<Node> open, Map<Node, Node> closed, Map<Node, Double> gCosts) {
-            this.open = open;
-            this.closed = closed;
-            this.gCosts = gCosts;
-        }
+    /**
+     * The open list of the agent's searches in the workspace, see {@link #setBucketQueue(boolean)}.
+     */
+    private OpenList openList(SearchWorkspace workspace) {
+        return bucketQueue ? workspace.getBucketOpen() : workspace.getOpen();
+    }
 
-        public PriorityQueue<Node> getOpen() {
-            return open;
+    private double h(Node n) {
+        float h = heuristics.get(n.getIndex());
+        if (Float.isNaN(h)) {
+            h = (float) heuristic.estimate(n, goal);
+            heuristics.putEstimate(n.getIndex(), h);
         }
+        return h;
+    }
 
-        public Map<Node, Node> getClosed() {
-            return closed;
+    private int hInteger(Node n) {
+        int h = heuristics.getInteger(n.getIndex());
+        if (h == LearnedHeuristics.MISSING_INTEGER) {
+            h = heuristic.estimateInteger(n, goal);
+            heuristics.putEstimateInteger(n.getIndex(), h);
         }
+        return h;
+    }
 
-        public Map<Node, Double> getGCosts() {
-            return gCosts;
-        }
+    /**
+     * The integer f-cost of a node, saturating rather than overflowing when its heuristic value is infinite.
+     */
+    private int fInteger(int g, Node n) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) g + hInteger(n));
     }
 
     // -----------------------------------
@@ -214,6 +304,35 @@ public class BmaaAgent extends Agent {
         return false;
     }
 
+    /**
+     * Set the heuristic used to estimate distances to nodes the agent has not learned a value for. Must be set
+     * before the agent first searches.
+     * @param heuristic the heuristic provider, {@link OctileHeuristic} by default
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Keep the open list of the agent's searches in a {@link DataStructures.BucketPriorityQueue} instead of a
+     * binary heap. Both give the node with the lowest f-cost first but may break ties differently.
+     * @param bucketQueue true to use a bucket queue
+     */
+    public void setBucketQueue(boolean bucketQueue) {
+        this.bucketQueue = bucketQueue;
+    }
+
+    /**
+     * Search with g-costs, heuristic values and open list keys scaled to integers with
+     * {@link DataStructures.graph.IntegerCosts}, so f-costs are added and compared exactly and the open list is a
+     * {@link IntKeyPriorityQueue} whatever {@link #setBucketQueue(boolean)} says. Learned values are kept scaled, so
+     * this must be set before the agent first searches.
+     * @param integerCosts true to search with integer costs
+     */
+    public void setIntegerCosts(boolean integerCosts) {
+        this.integerCosts = integerCosts;
+    }
+
     /**
      * Returns the agents next node as defined in its path prefix.
      * @return the next node on the agents path prefix
@@ -266,10 +385,10 @@ public class BmaaAgent extends Agent {
     public void moveToNextOnPath() {
         updateMetrics(this.pathPrefix.get(currentPathIndex + 1));
 
-        this.currentNode.leave();
+        occupancy.leave(this.currentNode);
         this.currentPathIndex += 1;
         this.currentNode = this.pathPrefix.get(currentPathIndex);
-        this.currentNode.enter(this);
+        occupancy.enter(this.currentNode, this);
     }
 
     /**
@@ -279,9 +398,9 @@ public class BmaaAgent extends Agent {
     private void moveTo(Node node){
         updateMetrics(node);
 
-        this.currentNode.leave();
+        occupancy.leave(this.currentNode);
         this.currentNode = node;
-        this.currentNode.enter(this);
+        occupancy.enter(this.currentNode, this);
     }
 
     /**
@@ -294,7 +413,7 @@ public class BmaaAgent extends Agent {
         Set<Node> adjacentNodes = this.graph.getNeigbours(currentNode);
 
         for (Node node : adjacentNodes) {
-            if (!node.isOccupied()) {
+            if (!occupancy.isOccupied(node)) {
                 moveTo(node);
                 return node;
             }
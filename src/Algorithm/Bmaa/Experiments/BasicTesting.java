@@ -2,6 +2,7 @@ package Algorithm.Bmaa.Experiments;
 
 import Algorithm.Bmaa.Bmaa;
 import Benchmark.Benchmark;
+import Benchmark.MapCache;
 import Benchmark.ProblemMap;
 import Benchmark.ProblemSet;
 import com.google.common.base.Stopwatch;
@@ -64,7 +65,7 @@ public class BasicTesting {
         List<ProblemSet> problemSets = new ArrayList<>();
 
         for (int i=0; i<10; i++) {
-            Graph graph = ProblemMap.graphFromMap(map);
+            Graph graph = MapCache.get(map);
             ProblemSet problemSet = ProblemSet.randomProblemSet(graph, 500);
 
             Stopwatch stopwatch = Stopwatch.createStarted();
@@ -123,7 +124,7 @@ public class BasicTesting {
             List<Result> instanceResults = new ArrayList<>();
 
             for (int i=0; i<10; i++) {
-                Graph graph = ProblemMap.graphFromMap(map);
+                Graph graph = MapCache.get(map);
                 ProblemSet problemSet = ProblemSet.randomProblemSet(graph, n);
 
                 Result result = new Bmaa(graph,
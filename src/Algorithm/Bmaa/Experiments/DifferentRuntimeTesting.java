@@ -1,8 +1,10 @@
 package Algorithm.Bmaa.Experiments;
 
 import Algorithm.Bmaa.Bmaa;
+import Algorithm.ThreadCpuClock;
 import Benchmark.Benchmark;
-import Benchmark.ProblemMap;
+import Benchmark.ExperimentRunner;
+import Benchmark.MapCache;
 import Benchmark.Result;
 import Benchmark.ProblemSet;
 import DataStructures.graph.Graph;
@@ -75,38 +77,76 @@ public class DifferentRuntimeTesting {
                 results.add(runForNAgents(mapPath, agentCount));
             }
 
-            // Group by stopping time
-            java.util.Map<Integer, List<Result>> grouped =
-                    results.stream()
-                            .flatMap(List::stream)
-                            .collect(Collectors.groupingBy(Result::getTimeLimit, Collectors.toList()));
-
-            // Record these results
-            String fileName =
-                    mapPath.replaceAll("maps/", "")
-                            .replaceAll(".map", "")
-                            .replaceAll(" ", "_") + ".csv";
-            Path file = Path.of("logs/detail_" + fileName);
-            writeToFile(file, List.of(Result.csvHeaders()),
-                    grouped.entrySet().stream().flatMap(entry -> entry.getValue().stream())
-                            .map(Result::toCsvString)
-                            .collect(Collectors.toList()));
-
-            // Average the results across different agent counts
-            List<Result> averaged = new ArrayList<>();
-            for (List<Result> r : grouped.values()) {
-                averaged.add(Result.averageDifferentAgentCountsResults(r));
-            }
+            recordResults(mapPath, results);
+        }
+    }
+
+    /**
+     * The same experiment as {@link #experiment2(List)}, with the instances spread across a number of threads.
+     * Each instance is timed by the CPU time of its own thread so concurrent instances do not distort each other's
+     * time limits.
+     */
+    public static void experiment3(List<String> maps, int threads) {
+        ExperimentRunner runner = new ExperimentRunner(threads, ThreadCpuClock::new);
+
+        java.util.Map<String, java.util.Map<Integer, List<Result>>> results =
+                runner.run(maps, Benchmark.BMAA_AGENT_COUNTS, 10,
+                        (graph, agentCount, time) -> {
+                            ProblemSet problemSet = ProblemSet.randomProblemSet(graph, agentCount);
+                            return new Bmaa(graph,
+                                    problemSet.getS(),
+                                    problemSet.getT(),
+                                    Bmaa.DEFAULT_EXPANSIONS,
+                                    Bmaa.DEFAULT_VISION,
+                                    Bmaa.DEFAULT_MOVES,
+                                    false,
+                                    false,
+                                    Bmaa.DEFAULT_SEARCH_WORKERS,
+                                    time).runWithMultipleTimeLimits(Benchmark.TIME_LIMITS);
+                        },
+                        (mapPath, agentCount, averaged) ->
+                                System.out.println("Finished " + mapPath + " with " + agentCount + " agents"));
+
+        for (String mapPath : maps) {
+            recordResults(mapPath, new ArrayList<>(results.get(mapPath).values()));
+        }
+    }
+
+    /**
+     * Write the results of one map, for every agent count, and their average across agent counts to the logs.
+     */
+    private static void recordResults(String mapPath, List<List<Result>> results) {
+        // Group by stopping time
+        java.util.Map<Integer, List<Result>> grouped =
+                results.stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.groupingBy(Result::getTimeLimit, Collectors.toList()));
 
-            // At the end we have a result for each time limit averaged across different agent counts
-            file = Path.of("logs/averaged_" + fileName);
-            writeToFile(file,
-                    List.of(Result.csvHeaders()),
-                    averaged.stream()
-                            .map(Result::toCsvString)
-                            .collect(Collectors.toList())
-            );
+        // Record these results
+        String fileName =
+                mapPath.replaceAll("maps/", "")
+                        .replaceAll(".map", "")
+                        .replaceAll(" ", "_") + ".csv";
+        Path file = Path.of("logs/detail_" + fileName);
+        writeToFile(file, List.of(Result.csvHeaders()),
+                grouped.entrySet().stream().flatMap(entry -> entry.getValue().stream())
+                        .map(Result::toCsvString)
+                        .collect(Collectors.toList()));
+
+        // Average the results across different agent counts
+        List<Result> averaged = new ArrayList<>();
+        for (List<Result> r : grouped.values()) {
+            averaged.add(Result.averageDifferentAgentCountsResults(r));
         }
+
+        // At the end we have a result for each time limit averaged across different agent counts
+        file = Path.of("logs/averaged_" + fileName);
+        writeToFile(file,
+                List.of(Result.csvHeaders()),
+                averaged.stream()
+                        .map(Result::toCsvString)
+                        .collect(Collectors.toList())
+        );
     }
 
     /**
@@ -119,7 +159,7 @@ public class DifferentRuntimeTesting {
 
         for (int i = 0; i < 10; i++) {
 
-            Graph graph = ProblemMap.graphFromMap(mapPath);
+            Graph graph = MapCache.get(mapPath);
             ProblemSet problemSet = ProblemSet.randomProblemSet(graph, agentCount);
 
             List<Result> results = new Bmaa(graph,
@@ -5,7 +5,7 @@ import Benchmark.Benchmark;
 import Benchmark.Result;
 import DataStructures.graph.Graph;
 import Benchmark.ProblemSet;
-import Benchmark.ProblemMap;
+import Benchmark.MapCache;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -54,7 +54,7 @@ public class Experiment6 {
 
         for (int i = 0; i < 10; i++) {
 
-            Graph graph = ProblemMap.graphFromMap(mapPath);
+            Graph graph = MapCache.get(mapPath);
             ProblemSet problemSet = ProblemSet.fromRegions(graph,
                     agentCount,
                     new ProblemSet.Region(60, 0, 440, 480),
@@ -0,0 +1,330 @@
+package Algorithm.Cbs;
+
+import Algorithm.Heuristics.GoalDistanceCache;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Time;
+import Benchmark.ProblemSet;
+import Benchmark.Result;
+import DataStructures.FocalQueue;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+import Error.NoAgentAtGoalException;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Conflict-Based Search (Sharon et al., 2015) and its bounded-suboptimal variant ECBS (Barer et al., 2014), an
+ * offline solver which plans the whole path of every agent before any agent moves.
+ *
+ * Each node of the constraint tree holds a path for every agent which satisfies the constraints on that agent
+ * along the node's branch. When two paths collide the node is split in two, each child forbidding one of the two
+ * agents from the collision and planning that agent again with {@link SpaceTimeSearch}. With a suboptimality of 1
+ * this is CBS and the solution has the lowest sum of costs. With a suboptimality w above 1 both levels search
+ * focally, preferring paths and nodes with fewer collisions, and the solution costs at most w times the optimum.
+ *
+ * The search gives up when it runs out of time or has generated as many constraint tree nodes as it is allowed to
+ * keep, which bounds its memory. Solutions are reported as a {@link Result} like those of the online algorithms,
+ * so sweeps can include this solver as a baseline for the travel distance and completion times they give up.
+ */
+public class Cbs {
+
+    public static final double DEFAULT_SUBOPTIMALITY = 1.0;
+    public static final int DEFAULT_MAX_NODES = 10_000;
+    public static final int DEFAULT_MAX_STATES = 1_000_000;
+
+    private final Graph graph;
+    private final List<Node> s;
+    private final List<Node> t;
+
+    private final double suboptimality;
+    private final int maxNodes;
+
+    private Time time;
+
+    private HeuristicProvider heuristic;
+
+    /**
+     * The time limit imposed on runtime of the algorithm, in milliSeconds
+     */
+    private long timeLimit;
+
+    private int nodesGenerated = 0;
+    private int nodesExpanded = 0;
+    private long solveTime;
+
+    public Cbs(ProblemSet problemSet, double suboptimality) {
+        this(problemSet.getGraph(), problemSet.getS(), problemSet.getT(), suboptimality);
+    }
+
+    public Cbs(Graph graph, List<Node> s, List<Node> t, double suboptimality) {
+        this(graph, s, t, suboptimality, DEFAULT_MAX_NODES, new Time());
+    }
+
+    /**
+     * @param suboptimality the factor by which the cost of the solution may exceed the optimum, at least 1
+     * @param maxNodes the largest number of constraint tree nodes to generate
+     * @param time the time keeper the time limit is measured with
+     */
+    public Cbs(Graph graph, List<Node> s, List<Node> t, double suboptimality, int maxNodes, Time time) {
+        if (suboptimality < 1) {
+            throw new IllegalArgumentException("Suboptimality must be at least 1 but was " + suboptimality);
+        }
+        this.graph = graph;
+        this.s = s;
+        this.t = t;
+        this.suboptimality = suboptimality;
+        this.maxNodes = maxNodes;
+        this.time = time;
+        this.heuristic = new GoalDistanceCache(graph);
+    }
+
+    /**
+     * Set the heuristic the low level search is guided by.
+     * @param heuristic the heuristic provider, a {@link GoalDistanceCache} for the graph by default
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Solve the problem and report the solution in the same form as the online algorithms. Every agent completes,
+     * at the time step its path ends, and its completion time in milliseconds is the time taken to solve.
+     * @param timeLimit the time allowed for solving
+     * @return the results of the solution
+     * @throws NoAgentAtGoalException if no solution was found within the time limit or the node limit
+     */
+    public Result runWithTimeLimit(Duration timeLimit) {
+        List<List<Node>> paths = solve(timeLimit);
+        if (paths == null) {
+            throw new NoAgentAtGoalException("No solution for " + s.size() + " agents within " + timeLimit.toMillis() + "ms and " + maxNodes + " nodes");
+        }
+
+        double averageCompletionTimeSteps = paths.stream()
+                .mapToInt(path -> path.size() - 1)
+                .average()
+                .orElseThrow(RuntimeException::new);
+
+        double averageTravelDistance = paths.stream()
+                .mapToDouble(path -> {
+                    double distance = 0;
+                    for (int i = 1; i < path.size(); i++) {
+                        if (path.get(i) != path.get(i - 1)) {
+                            distance += graph.getEdge(path.get(i - 1), path.get(i)).getWeight();
+                        }
+                    }
+                    return distance;
+                })
+                .average()
+                .orElseThrow(RuntimeException::new);
+
+        return new Result(
+                (int) this.timeLimit,
+                s.size(),
+                1.0,
+                solveTime,
+                averageCompletionTimeSteps,
+                averageTravelDistance);
+    }
+
+    /**
+     * Find a path for every agent such that no two agents are on the same node at once or swap nodes. Once its
+     * path ends an agent stays on its goal.
+     * @param timeLimit the time allowed for solving
+     * @return the path of every agent, one node per time step, or null if no solution was found in time or
+     *         within the node limit
+     */
+    public List<List<Node>> solve(Duration timeLimit) {
+        this.timeLimit = timeLimit.toMillis();
+        this.nodesGenerated = 0;
+        this.nodesExpanded = 0;
+
+        time.startStopWatch();
+        try {
+            return search();
+        } finally {
+            time.stopStopWatch();
+            solveTime = time.milliSecondsElapsed();
+        }
+    }
+
+    private List<List<Node>> search() {
+        SpaceTimeSearch lowLevel = new SpaceTimeSearch(graph, heuristic, suboptimality, DEFAULT_MAX_STATES,
+                () -> !underTimeLimit());
+
+        TreeNode root = new TreeNode(s.size());
+        for (int agent = 0; agent < s.size(); agent++) {
+            SpaceTimeSearch.Plan plan =
+                    lowLevel.find(agent, s.get(agent), t.get(agent), Collections.emptyList(), root.paths);
+            if (plan == null) {
+                return null;
+            }
+            root.setPlan(agent, plan);
+        }
+        root.findConflicts(graph.indexBound());
+
+        FocalQueue<TreeNode> open = new FocalQueue<>(suboptimality, Comparator.comparingInt(node -> node.conflicts));
+        open.add(root, root.lowerBound, root.cost);
+        nodesGenerated = 1;
+
+        while (!open.isEmpty() && underTimeLimit()) {
+            TreeNode node = open.poll();
+            nodesExpanded += 1;
+            if (node.split == null) {
+                return node.paths;
+            }
+
+            for (Constraint constraint : node.split) {
+                if (nodesGenerated >= maxNodes) {
+                    return null;
+                }
+                TreeNode child = new TreeNode(node, constraint);
+                int agent = constraint.getAgent();
+                SpaceTimeSearch.Plan plan =
+                        lowLevel.find(agent, s.get(agent), t.get(agent), child.constraintsOf(agent), child.paths);
+                if (plan == null) {
+                    continue;
+                }
+                child.setPlan(agent, plan);
+                child.findConflicts(graph.indexBound());
+                open.add(child, child.lowerBound, child.cost);
+                nodesGenerated += 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of constraint tree nodes generated by the last search.
+     */
+    public int getNodesGenerated() {
+        return nodesGenerated;
+    }
+
+    /**
+     * Returns the number of constraint tree nodes expanded by the last search.
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Return true if the current execution time indicated by the stopwatch is under the time limit.
+     * @return a boolean indicating if execution time is under the time limit
+     */
+    private boolean underTimeLimit() {
+        return time.milliSecondsElapsed() < timeLimit;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * A node of the constraint tree. Nodes share the paths of their parent except for that of the agent their
+     * constraint was added to, and find their constraints by walking up the tree.
+     */
+    private static class TreeNode {
+        private final TreeNode parent;
+        private final Constraint constraint;
+
+        private final List<List<Node>> paths;
+        private final double[] costs;
+        private final double[] lowerBounds;
+        private double cost = 0;
+        private double lowerBound = 0;
+
+        /**
+         * The number of collisions between the paths, and the constraints splitting the earliest one.
+         */
+        private int conflicts;
+        private Constraint[] split;
+
+        private TreeNode(int agents) {
+            this.parent = null;
+            this.constraint = null;
+            this.paths = new ArrayList<>(Collections.nCopies(agents, null));
+            this.costs = new double[agents];
+            this.lowerBounds = new double[agents];
+        }
+
+        private TreeNode(TreeNode parent, Constraint constraint) {
+            this.parent = parent;
+            this.constraint = constraint;
+            this.paths = new ArrayList<>(parent.paths);
+            this.costs = parent.costs.clone();
+            this.lowerBounds = parent.lowerBounds.clone();
+            this.cost = parent.cost;
+            this.lowerBound = parent.lowerBound;
+        }
+
+        private void setPlan(int agent, SpaceTimeSearch.Plan plan) {
+            cost += plan.cost - costs[agent];
+            lowerBound += plan.lowerBound - lowerBounds[agent];
+            paths.set(agent, plan.path);
+            costs[agent] = plan.cost;
+            lowerBounds[agent] = plan.lowerBound;
+        }
+
+        private List<Constraint> constraintsOf(int agent) {
+            List<Constraint> constraints = new ArrayList<>();
+            for (TreeNode node = this; node.constraint != null; node = node.parent) {
+                if (node.constraint.getAgent() == agent) {
+                    constraints.add(node.constraint);
+                }
+            }
+            return constraints;
+        }
+
+        /**
+         * Count the collisions between the paths, time step by time step, and keep the constraints which split the
+         * earliest.
+         */
+        private void findConflicts(int bound) {
+            conflicts = 0;
+            split = null;
+
+            int end = 0;
+            for (List<Node> path : paths) {
+                end = Math.max(end, path.size());
+            }
+
+            Map<Integer, Integer> at = new HashMap<>();
+            Map<Long, Integer> moves = new HashMap<>();
+            for (int t = 0; t < end; t++) {
+                at.clear();
+                moves.clear();
+                for (int a = 0; a < paths.size(); a++) {
+                    Node v = position(a, t);
+                    Integer other = at.putIfAbsent(v.getIndex(), a);
+                    if (other != null) {
+                        conflicts += 1;
+                        if (split == null) {
+                            split = new Constraint[] {
+                                    Constraint.vertex(other, v.getIndex(), t),
+                                    Constraint.vertex(a, v.getIndex(), t)};
+                        }
+                    }
+                    if (t > 0) {
+                        int u = position(a, t - 1).getIndex();
+                        if (u != v.getIndex()) {
+                            other = moves.get((long) v.getIndex() * bound + u);
+                            if (other != null) {
+                                conflicts += 1;
+                                if (split == null) {
+                                    split = new Constraint[] {
+                                            Constraint.edge(other, v.getIndex(), u, t),
+                                            Constraint.edge(a, u, v.getIndex(), t)};
+                                }
+                            }
+                            moves.put((long) u * bound + v.getIndex(), a);
+                        }
+                    }
+                }
+            }
+        }
+
+        private Node position(int agent, int timeStep) {
+            List<Node> path = paths.get(agent);
+            return path.get(Math.min(timeStep, path.size() - 1));
+        }
+    }
+}
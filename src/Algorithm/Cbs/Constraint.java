@@ -0,0 +1,90 @@
+package Algorithm.Cbs;
+
+import java.util.Objects;
+
+/**
+ * A constraint added to one agent by a node of the constraint tree. A vertex constraint forbids the agent from
+ * being at a node at a time step; an edge constraint forbids it from arriving at a node from a given neighbour at a
+ * time step.
+ */
+public final class Constraint {
+
+    /**
+     * The value of {@link #getFrom()} for vertex constraints.
+     */
+    public static final int ANY = -1;
+
+    private final int agent;
+    private final int node;
+    private final int from;
+    private final int timeStep;
+
+    private Constraint(int agent, int node, int from, int timeStep) {
+        this.agent = agent;
+        this.node = node;
+        this.from = from;
+        this.timeStep = timeStep;
+    }
+
+    public static Constraint vertex(int agent, int node, int timeStep) {
+        return new Constraint(agent, node, ANY, timeStep);
+    }
+
+    public static Constraint edge(int agent, int from, int to, int timeStep) {
+        return new Constraint(agent, to, from, timeStep);
+    }
+
+    /**
+     * Returns the position of the constrained agent in the problem.
+     */
+    public int getAgent() {
+        return agent;
+    }
+
+    /**
+     * Returns the index of the node the agent may not be at, or may not arrive at.
+     */
+    public int getNode() {
+        return node;
+    }
+
+    /**
+     * Returns the index of the node the agent may not arrive from, or {@link #ANY} for a vertex constraint.
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTimeStep() {
+        return timeStep;
+    }
+
+    public boolean isVertex() {
+        return from == ANY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Constraint)) {
+            return false;
+        }
+        Constraint other = (Constraint) o;
+        return agent == other.agent && node == other.node && from == other.from && timeStep == other.timeStep;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(agent, node, from, timeStep);
+    }
+
+    @Override
+    public String toString() {
+        if (isVertex()) {
+            return "agent " + agent + " not at " + node + " at " + timeStep;
+        }
+        return "agent " + agent + " not " + from + "->" + node + " at " + timeStep;
+    }
+}
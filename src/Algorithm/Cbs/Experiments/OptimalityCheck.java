@@ -0,0 +1,86 @@
+package Algorithm.Cbs.Experiments;
+
+import Algorithm.Cbs.Cbs;
+import Benchmark.ProblemSet;
+import DataStructures.graph.Graph;
+import DataStructures.graph.GridGraph;
+import DataStructures.graph.Node;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that CBS finds optimal solutions: on random grids its sum of costs must never exceed that of a solution
+ * found by ECBS for the same instance, and ECBS must stay within its suboptimality bound of CBS.
+ */
+public class OptimalityCheck {
+
+    private static final int INSTANCES = 20;
+    private static final int SIZE = 24;
+    private static final int AGENTS = 12;
+    private static final double SUBOPTIMALITY = 1.5;
+    private static final double TOLERANCE = 1e-6;
+
+    public static void main(String[] args) {
+        int compared = 0;
+        for (int seed = 0; seed < INSTANCES; seed++) {
+            Random random = new Random(seed);
+            Graph graph = randomGrid(random);
+            ProblemSet problemSet = ProblemSet.randomProblemSet(graph, AGENTS, random);
+
+            List<List<Node>> optimal = new Cbs(problemSet, 1.0).solve(Duration.ofSeconds(10));
+            List<List<Node>> bounded = new Cbs(problemSet, SUBOPTIMALITY).solve(Duration.ofSeconds(10));
+            if (optimal == null || bounded == null) {
+                System.out.println("Instance " + seed + ": not solved in time, skipped");
+                continue;
+            }
+
+            double optimalCost = sumOfCosts(graph, optimal);
+            double boundedCost = sumOfCosts(graph, bounded);
+            System.out.println("Instance " + seed + ": CBS " + optimalCost + ", ECBS " + boundedCost);
+            if (optimalCost > boundedCost + TOLERANCE) {
+                throw new IllegalStateException("CBS cost " + optimalCost + " exceeds ECBS cost " + boundedCost +
+                        " on instance " + seed);
+            }
+            if (boundedCost > SUBOPTIMALITY * optimalCost + TOLERANCE) {
+                throw new IllegalStateException("ECBS cost " + boundedCost + " exceeds " + SUBOPTIMALITY +
+                        " times the optimum " + optimalCost + " on instance " + seed);
+            }
+            compared += 1;
+        }
+        System.out.println("Compared " + compared + " of " + INSTANCES + " instances");
+    }
+
+    /**
+     * A square grid with about a fifth of its cells blocked.
+     */
+    private static Graph randomGrid(Random random) {
+        char[] terrain = new char[SIZE * SIZE];
+        for (int i = 0; i < terrain.length; i++) {
+            terrain[i] = random.nextInt(5) == 0 ? '@' : '.';
+        }
+        return new GridGraph(SIZE, SIZE, terrain, Collections.singleton('.'));
+    }
+
+    /**
+     * The cost of a solution as CBS counts it: every move costs its edge weight and every wait costs 1, up to each
+     * agent's final arrival at its goal.
+     */
+    private static double sumOfCosts(Graph graph, List<List<Node>> paths) {
+        double cost = 0;
+        for (List<Node> path : paths) {
+            int end = path.size() - 1;
+            while (end > 0 && path.get(end - 1) == path.get(end)) {
+                end -= 1;
+            }
+            for (int i = 1; i <= end; i++) {
+                Node from = path.get(i - 1);
+                Node to = path.get(i);
+                cost += from == to ? 1 : graph.getEdge(from, to).getWeight();
+            }
+        }
+        return cost;
+    }
+}
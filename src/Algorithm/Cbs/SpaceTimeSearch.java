@@ -0,0 +1,223 @@
+package Algorithm.Cbs;
+
+import Algorithm.Heuristics.HeuristicProvider;
+import DataStructures.FocalQueue;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The low level search of {@link Cbs}: a focal A* search over (node, time step) states for the path of one agent
+ * which satisfies the agent's constraints.
+ *
+ * Moving along an edge costs its weight and waiting costs 1, so a path costs the sum of its moves and of the waits
+ * before the agent's final arrival at its goal. Among the states whose cost is within the suboptimality bound, the
+ * search prefers those whose path so far conflicts least with the current paths of the other agents, as in ECBS.
+ */
+class SpaceTimeSearch {
+
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * A path found for an agent, with its cost and a lower bound on the cost of the agent's optimal path.
+     */
+    static class Plan {
+        final List<Node> path;
+        final double cost;
+        final double lowerBound;
+
+        private Plan(List<Node> path, double cost, double lowerBound) {
+            this.path = path;
+            this.cost = cost;
+            this.lowerBound = lowerBound;
+        }
+    }
+
+    private final Graph graph;
+    private final HeuristicProvider heuristic;
+    private final double suboptimality;
+    private final int maxStates;
+    private final BooleanSupplier outOfTime;
+
+    /**
+     * @param suboptimality the factor by which paths may cost more than the optimal path under the constraints
+     * @param maxStates the largest number of states one search may expand
+     * @param outOfTime tells the search to give up
+     */
+    SpaceTimeSearch(Graph graph, HeuristicProvider heuristic, double suboptimality, int maxStates,
+                    BooleanSupplier outOfTime) {
+        this.graph = graph;
+        this.heuristic = heuristic;
+        this.suboptimality = suboptimality;
+        this.maxStates = maxStates;
+        this.outOfTime = outOfTime;
+    }
+
+    /**
+     * Find a path for an agent which satisfies its constraints.
+     * @param agent the position of the agent in the problem
+     * @param constraints the constraints on the agent
+     * @param paths the current paths of every agent, indexed by agent, or null for agents without one; the path of
+     *              the agent itself is ignored
+     * @return the plan, or null if there is none or the search ran out of states or time
+     */
+    Plan find(int agent, Node start, Node goal, Collection<Constraint> constraints, List<List<Node>> paths) {
+        Set<Constraint> forbidden = new HashSet<>(constraints);
+        int lastConstraint = 0;
+        int lastGoalConstraint = -1;
+        for (Constraint constraint : constraints) {
+            lastConstraint = Math.max(lastConstraint, constraint.getTimeStep());
+            if (constraint.isVertex() && constraint.getNode() == goal.getIndex()) {
+                lastGoalConstraint = Math.max(lastGoalConstraint, constraint.getTimeStep());
+            }
+        }
+        // After the last constraint an agent needs no more steps than there are nodes
+        int horizon = lastConstraint + graph.indexBound();
+
+        ConflictTable conflicts = new ConflictTable(graph.indexBound(), paths, agent);
+
+        FocalQueue<State> queue = new FocalQueue<>(suboptimality, Comparator.comparingInt(state -> state.conflicts));
+        Map<Long, State> generated = new HashMap<>();
+
+        State root = new State(start, 0, 0.00, 0, null);
+        queue.add(root, heuristic.estimate(start, goal));
+        generated.put(key(start.getIndex(), 0), root);
+
+        int expanded = 0;
+        while (!queue.isEmpty()) {
+            double lowerBound = queue.minLowerBound();
+            State state = queue.poll();
+            if (state.replaced) {
+                continue;
+            }
+            if (state.node == goal && state.timeStep > lastGoalConstraint) {
+                return plan(state, Math.min(lowerBound, state.g));
+            }
+
+            expanded += 1;
+            if (expanded > maxStates || (expanded % 256 == 0 && outOfTime.getAsBoolean())) {
+                return null;
+            }
+            if (state.timeStep >= horizon) {
+                continue;
+            }
+
+            int t = state.timeStep + 1;
+            int n = state.node.getIndex();
+            List<Node> successors = new ArrayList<>(graph.getNeigbours(state.node));
+            successors.add(state.node);
+            for (Node successor : successors) {
+                int m = successor.getIndex();
+                if (forbidden.contains(Constraint.vertex(agent, m, t))
+                        || (m != n && forbidden.contains(Constraint.edge(agent, n, m, t)))) {
+                    continue;
+                }
+
+                double cost = successor == state.node ? 1 : graph.getEdge(state.node, successor).getWeight();
+                double g = state.g + cost;
+                int c = state.conflicts + conflicts.count(n, m, t);
+
+                long k = key(m, t);
+                State old = generated.get(k);
+                if (old != null && (old.g < g - TOLERANCE || (old.g <= g + TOLERANCE && old.conflicts <= c))) {
+                    continue;
+                }
+                if (old != null) {
+                    old.replaced = true;
+                }
+                State next = new State(successor, t, g, c, state);
+                generated.put(k, next);
+                queue.add(next, g + heuristic.estimate(successor, goal));
+            }
+        }
+        return null;
+    }
+
+    private long key(int node, int timeStep) {
+        return (long) timeStep * graph.indexBound() + node;
+    }
+
+    private static Plan plan(State end, double lowerBound) {
+        List<Node> path = new ArrayList<>();
+        for (State state = end; state != null; state = state.parent) {
+            path.add(state.node);
+        }
+        Collections.reverse(path);
+        return new Plan(path, end.g, lowerBound);
+    }
+
+    private static class State {
+        private final Node node;
+        private final int timeStep;
+        private final double g;
+        private final int conflicts;
+        private final State parent;
+        private boolean replaced = false;
+
+        private State(Node node, int timeStep, double g, int conflicts, State parent) {
+            this.node = node;
+            this.timeStep = timeStep;
+            this.g = g;
+            this.conflicts = conflicts;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Where the other agents are at each time step, to count the conflicts of a move with their paths. Agents stay
+     * on the last node of their path once it ends.
+     */
+    private static class ConflictTable {
+        private final long bound;
+        private final Map<Long, Integer> vertices = new HashMap<>();
+        private final Map<Integer, List<Integer>> parked = new HashMap<>();
+        private final Set<Long> moves = new HashSet<>();
+
+        private ConflictTable(int bound, List<List<Node>> paths, int agent) {
+            this.bound = bound;
+            for (int a = 0; a < paths.size(); a++) {
+                List<Node> path = paths.get(a);
+                if (a == agent || path == null) {
+                    continue;
+                }
+                for (int t = 0; t < path.size() - 1; t++) {
+                    vertices.merge(vertexKey(path.get(t).getIndex(), t), 1, Integer::sum);
+                }
+                for (int t = 1; t < path.size(); t++) {
+                    moves.add(moveKey(path.get(t - 1).getIndex(), path.get(t).getIndex(), t));
+                }
+                int last = path.get(path.size() - 1).getIndex();
+                parked.computeIfAbsent(last, node -> new ArrayList<>()).add(path.size() - 1);
+            }
+        }
+
+        /**
+         * Count the agents a move from one node to another, arriving at a time step, would collide with.
+         */
+        private int count(int from, int to, int timeStep) {
+            int count = vertices.getOrDefault(vertexKey(to, timeStep), 0);
+            List<Integer> arrivals = parked.get(to);
+            if (arrivals != null) {
+                for (int arrival : arrivals) {
+                    if (arrival <= timeStep) {
+                        count += 1;
+                    }
+                }
+            }
+            if (from != to && moves.contains(moveKey(to, from, timeStep))) {
+                count += 1;
+            }
+            return count;
+        }
+
+        private long vertexKey(int node, int timeStep) {
+            return (long) timeStep * bound + node;
+        }
+
+        private long moveKey(int from, int to, int timeStep) {
+            return ((long) timeStep * bound + from) * bound + to;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package Algorithm;
+
+/**
+ * A source of time readings for a {@link Time}.
+ *
+ * The time limits of an algorithm are measured with its time keeper, so the clock behind it decides what a time
+ * limit means: real time passed, CPU time spent by the running thread, or the number of time steps simulated.
+ */
+public interface Clock {
+
+    /**
+     * Returns the current reading of the clock in nanoseconds. Only the difference between two readings is
+     * meaningful.
+     */
+    long read();
+
+    /**
+     * Called by the time keeper every time the simulation advances by one time step.
+     */
+    default void timeStep() {
+    }
+}
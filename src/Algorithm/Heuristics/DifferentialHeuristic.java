@@ -0,0 +1,275 @@
+package Algorithm.Heuristics;
+
+import DataStructures.IntPriorityQueue;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A differential heuristic built from exact distances to a set of pivot (landmark) nodes.
+ *
+ * For any pivot p, the triangle inequality gives |d(p, a) - d(p, b)| <= d(a, b), so the largest such difference
+ * over all pivots is a lower bound on the true distance. Unlike the octile distance it accounts for walls, which
+ * makes it far better informed on maze-like maps. The estimate is never worse than the octile distance as the
+ * larger of the two is returned.
+ *
+ * The distances from each pivot are found with Dijkstra's algorithm and stored as one float per node, indexed by
+ * {@link Node#getIndex()}. Pivots are chosen by farthest point selection, each new pivot being the node furthest
+ * from all pivots chosen so far. The tables can be saved to and loaded from a file so they are only computed once
+ * per map.
+ */
+public class DifferentialHeuristic implements HeuristicProvider {
+
+    public static final int DEFAULT_PIVOTS = 8;
+
+    /**
+     * The directory tables are saved to by {@link #forMap(String, Graph, int)}.
+     */
+    public static final Path TABLE_DIRECTORY = Path.of("heuristics");
+
+    private static final int MAGIC = 0x44484531;
+
+    private final int[] pivots;
+    private final float[][] distances;
+
+    private DifferentialHeuristic(int[] pivots, float[][] distances) {
+        this.pivots = pivots;
+        this.distances = distances;
+    }
+
+    /**
+     * Choose pivots on the graph and compute the distance from each of them to every node.
+     * @param graph the graph to build the heuristic for
+     * @param pivotCount the number of pivots to use
+     * @return the heuristic
+     */
+    public static DifferentialHeuristic compute(Graph graph, int pivotCount) {
+        if (pivotCount < 1) {
+            throw new IllegalArgumentException("Pivot count must be at least 1 but was " + pivotCount);
+        }
+
+        // Start from the node furthest from an arbitrary node of the largest component
+        float[] seedDistances = distancesFrom(graph, graph.getNodeByIndex(firstNodeOfLargestComponent(graph)));
+        int next = furthest(seedDistances);
+
+        int[] pivots = new int[pivotCount];
+        float[][] distances = new float[pivotCount][];
+        float[] closestPivot = new float[graph.indexBound()];
+        Arrays.fill(closestPivot, Float.POSITIVE_INFINITY);
+
+        for (int i = 0; i < pivotCount; i++) {
+            pivots[i] = next;
+            distances[i] = distancesFrom(graph, graph.getNodeByIndex(next));
+            for (int n = 0; n < closestPivot.length; n++) {
+                closestPivot[n] = Math.min(closestPivot[n], distances[i][n]);
+            }
+            next = furthest(closestPivot);
+        }
+        return new DifferentialHeuristic(pivots, distances);
+    }
+
+    /**
+     * Return the heuristic for a map, loading its tables from {@link #TABLE_DIRECTORY} if they have been saved
+     * before, and otherwise computing and saving them.
+     * @param mapPath the path of the map file the graph was read from
+     * @param graph the graph of the map
+     * @param pivotCount the number of pivots to use
+     * @return the heuristic
+     */
+    public static DifferentialHeuristic forMap(String mapPath, Graph graph, int pivotCount) {
+        String name = Path.of(mapPath).getFileName().toString()
+                .replaceAll("\\.map$", "")
+                .replaceAll(" ", "_");
+        Path file = TABLE_DIRECTORY.resolve(name + "_" + pivotCount + ".dh");
+
+        if (Files.exists(file)) {
+            try {
+                return load(graph, file);
+            } catch (IOException e) {
+                System.out.println("Recomputing differential heuristic, could not load " + file + ": " + e.getMessage());
+            }
+        }
+
+        DifferentialHeuristic heuristic = compute(graph, pivotCount);
+        try {
+            Files.createDirectories(TABLE_DIRECTORY);
+            heuristic.save(file);
+        } catch (IOException e) {
+            System.out.println("Could not save differential heuristic to " + file + ": " + e.getMessage());
+        }
+        return heuristic;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    public double estimate(Node from, Node to) {
+        double best = from.octileDistance(to);
+        int a = from.getIndex();
+        int b = to.getIndex();
+        for (float[] table : distances) {
+            float da = table[a];
+            float db = table[b];
+            // Nodes outside the pivot's component tell us nothing
+            if (da != Float.POSITIVE_INFINITY && db != Float.POSITIVE_INFINITY) {
+                best = Math.max(best, Math.abs(da - db));
+            }
+        }
+        return best;
+    }
+
+    public int getPivotCount() {
+        return pivots.length;
+    }
+
+    /**
+     * Returns the exact distance from the i'th pivot to a node, infinite if the node cannot be reached.
+     */
+    public float distanceFromPivot(int i, Node node) {
+        return distances[i][node.getIndex()];
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Write the pivots and distance tables to a file.
+     */
+    public void save(Path file) throws IOException {
+        int bound = distances[0].length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (3 + pivots.length + pivots.length * bound));
+        buffer.putInt(MAGIC);
+        buffer.putInt(bound);
+        buffer.putInt(pivots.length);
+        for (int pivot : pivots) {
+            buffer.putInt(pivot);
+        }
+        for (float[] table : distances) {
+            buffer.asFloatBuffer().put(table);
+            buffer.position(buffer.position() + 4 * bound);
+        }
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Read pivots and distance tables previously saved for the given graph.
+     * @throws IOException if the file cannot be read or was not saved for a graph of the same size
+     */
+    public static DifferentialHeuristic load(Graph graph, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a differential heuristic file: " + file);
+        }
+        int bound = buffer.getInt();
+        int pivotCount = buffer.getInt();
+        if (bound != graph.indexBound()) {
+            throw new IOException("Differential heuristic in " + file + " has " + bound +
+                    " nodes but the graph has " + graph.indexBound());
+        }
+        if (pivotCount < 1 || buffer.remaining() != 4L * (pivotCount + (long) pivotCount * bound)) {
+            throw new IOException("Differential heuristic file " + file + " is truncated");
+        }
+
+        int[] pivots = new int[pivotCount];
+        for (int i = 0; i < pivotCount; i++) {
+            pivots[i] = buffer.getInt();
+        }
+        float[][] distances = new float[pivotCount][bound];
+        for (float[] table : distances) {
+            buffer.asFloatBuffer().get(table);
+            buffer.position(buffer.position() + 4 * bound);
+        }
+        return new DifferentialHeuristic(pivots, distances);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Dijkstra's algorithm from a single source over the whole graph.
+     * @return the distance to every node, indexed by node index, infinite for unreachable nodes
+     */
+    static float[] distancesFrom(Graph graph, Node source) {
+        double[] g = new double[graph.indexBound()];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        boolean[] closed = new boolean[graph.indexBound()];
+        IntPriorityQueue open = new IntPriorityQueue(graph.indexBound());
+
+        g[source.getIndex()] = 0;
+        open.put(source.getIndex(), 0);
+        while (!open.isEmpty()) {
+            int index = open.get();
+            closed[index] = true;
+            Node n = graph.getNodeByIndex(index);
+
+            for (Node neighbour : graph.getNeigbours(n)) {
+                int m = neighbour.getIndex();
+                if (closed[m]) {
+                    continue;
+                }
+                double cost = g[index] + graph.getEdge(n, neighbour).getWeight();
+                if (cost < g[m]) {
+                    if (open.contains(m)) {
+                        open.update(m, cost);
+                    }
+                    else {
+                        open.put(m, cost);
+                    }
+                    g[m] = cost;
+                }
+            }
+        }
+
+        float[] distances = new float[g.length];
+        for (int i = 0; i < g.length; i++) {
+            distances[i] = (float) g[i];
+        }
+        return distances;
+    }
+
+    /**
+     * Returns the index of the node with the largest finite distance.
+     */
+    private static int furthest(float[] distances) {
+        int best = 0;
+        float bestDistance = -1;
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] != Float.POSITIVE_INFINITY && distances[i] > bestDistance) {
+                best = i;
+                bestDistance = distances[i];
+            }
+        }
+        return best;
+    }
+
+    private static int firstNodeOfLargestComponent(Graph graph) {
+        int[] sizes = new int[graph.indexBound()];
+        int first = -1;
+        int largest = -1;
+        for (int i = 0; i < graph.indexBound(); i++) {
+            Node node = graph.getNodeByIndex(i);
+            if (node == null) {
+                continue;
+            }
+            int component = graph.component(node);
+            sizes[component] += 1;
+            if (largest == -1 || sizes[component] > sizes[largest]) {
+                largest = component;
+            }
+        }
+        for (int i = 0; i < graph.indexBound(); i++) {
+            Node node = graph.getNodeByIndex(i);
+            if (node != null && graph.component(node) == largest) {
+                first = i;
+                break;
+            }
+        }
+        if (first == -1) {
+            throw new IllegalArgumentException("Cannot build a differential heuristic for an empty graph");
+        }
+        return first;
+    }
+}
@@ -0,0 +1,141 @@
+package Algorithm.Heuristics;
+
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A heuristic which gives the exact distance to a goal, from a distance field computed once per distinct goal and
+ * shared by every agent using the cache.
+ *
+ * The field of a goal is found by a Dijkstra search outwards from the goal, which on an undirected graph gives the
+ * distance from every node to the goal. Fields are float arrays indexed by {@link Node#getIndex()}; they are never
+ * modified once computed, so agents searching on different threads can read them freely. Only as many fields as fit
+ * in the memory budget are kept, the least recently used being dropped first.
+ *
+ * When many agents head for the same area, a goal close to one whose field is cached can reuse that field instead
+ * of computing its own. With g' the cached goal and d(g, g') at most the cluster radius, the triangle inequality
+ * gives d(n, g) >= d(n, g') - d(g, g'), which is admissible but less exact the larger the radius.
+ */
+public class GoalDistanceCache implements HeuristicProvider {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final Graph graph;
+    private final double clusterRadius;
+    private final Map<Integer, float[]> fields;
+
+    /**
+     * Each thread remembers the last goal it asked about, as an agent asks about the same goal many times in a row.
+     */
+    private final ThreadLocal<Lookup> lastLookup = new ThreadLocal<>();
+
+    private int computed = 0;
+
+    /**
+     * Create a cache with the default memory budget that only reuses fields for identical goals.
+     */
+    public GoalDistanceCache(Graph graph) {
+        this(graph, DEFAULT_MAX_BYTES, 0);
+    }
+
+    /**
+     * @param graph the graph the goals lie on, which must be undirected
+     * @param maxBytes the memory budget for distance fields, at least one field is always kept
+     * @param clusterRadius goals within this distance of a goal whose field is cached reuse that field
+     */
+    public GoalDistanceCache(Graph graph, long maxBytes, double clusterRadius) {
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("Goal distance fields can only be computed on an undirected graph");
+        }
+        this.graph = graph;
+        this.clusterRadius = clusterRadius;
+
+        long fieldBytes = 4L * Math.max(1, graph.indexBound());
+        int maxFields = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / fieldBytes));
+        this.fields = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+                return size() > maxFields;
+            }
+        };
+    }
+
+    @Override
+    public double estimate(Node from, Node to) {
+        Lookup lookup = lastLookup.get();
+        if (lookup == null || lookup.goal != to.getIndex()) {
+            lookup = lookup(to);
+            lastLookup.set(lookup);
+        }
+
+        float distance = lookup.field[from.getIndex()];
+        if (distance == Float.POSITIVE_INFINITY) {
+            // The goal cannot be reached from here, no better bound is known
+            return from.octileDistance(to);
+        }
+        return Math.max(from.octileDistance(to), distance - lookup.offset);
+    }
+
+    /**
+     * Returns the number of distance fields computed so far.
+     */
+    public synchronized int fieldsComputed() {
+        return computed;
+    }
+
+    /**
+     * Returns the number of distance fields currently held in memory.
+     */
+    public synchronized int size() {
+        return fields.size();
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Find the field of a goal, or of a cached goal close enough to it, computing the goal's own field if there is
+     * neither.
+     */
+    private synchronized Lookup lookup(Node goal) {
+        int index = goal.getIndex();
+
+        float[] field = fields.get(index);
+        if (field != null) {
+            return new Lookup(index, field, 0);
+        }
+
+        if (clusterRadius > 0) {
+            float[] nearest = null;
+            float nearestDistance = Float.POSITIVE_INFINITY;
+            for (float[] candidate : fields.values()) {
+                if (candidate[index] < nearestDistance) {
+                    nearest = candidate;
+                    nearestDistance = candidate[index];
+                }
+            }
+            if (nearest != null && nearestDistance <= clusterRadius) {
+                return new Lookup(index, nearest, nearestDistance);
+            }
+        }
+
+        field = DifferentialHeuristic.distancesFrom(graph, goal);
+        fields.put(index, field);
+        computed += 1;
+        return new Lookup(index, field, 0);
+    }
+
+    private static class Lookup {
+        private final int goal;
+        private final float[] field;
+        private final float offset;
+
+        private Lookup(int goal, float[] field, float offset) {
+            this.goal = goal;
+            this.field = field;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package Algorithm.Heuristics;
+
+import DataStructures.graph.IntegerCosts;
+import DataStructures.graph.Node;
+
+/**
+ * Supplies the initial heuristic estimate of the distance between two nodes, used by agents for nodes they have
+ * not yet learned a value for.
+ *
+ * Estimates must never overestimate the true distance, and implementations must be safe to share between agents
+ * searching on different threads.
+ */
+public interface HeuristicProvider {
+
+    /**
+     * Returns an estimate of the shortest path distance from one node to another.
+     * @param from the node the path starts at
+     * @param to the node the path ends at
+     * @return a lower bound on the distance between the nodes
+     */
+    double estimate(Node from, Node to);
+
+    /**
+     * Returns the estimate scaled to an integer lower bound for searches in {@link IntegerCosts}. By default the
+     * estimate is scaled with {@link IntegerCosts#estimate(double)}; providers which can compute the scaled value
+     * exactly should override this.
+     * @param from the node the path starts at
+     * @param to the node the path ends at
+     * @return a lower bound on the scaled distance between the nodes
+     */
+    default int estimateInteger(Node from, Node to) {
+        return IntegerCosts.estimate(estimate(from, to));
+    }
+}
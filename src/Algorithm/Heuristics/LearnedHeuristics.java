@@ -0,0 +1,272 @@
+package Algorithm.Heuristics;
+
+import java.util.Arrays;
+
+/**
+ * The heuristic values of one agent, keyed by node index.
+ *
+ * An agent stores two kinds of value: plain estimates, taken from its {@link HeuristicProvider} the first time it
+ * meets a node, and learned values, written back after a search. Learned values are the result of the agent's
+ * searches and cannot be recomputed, so they are always kept. Plain estimates can be recomputed at any time, so
+ * only a bounded number of them are kept; once the bound is reached an old estimate is dropped to make room,
+ * chosen by sweeping a clock hand across the table. No estimate is dropped between {@link #beginSearch()} and
+ * {@link #endSearch()}, so every node a search generates still has a value when the search learns from it.
+ *
+ * Entries live in primitive arrays with open addressing and linear probing, so a table costs a few bytes per
+ * entry and no objects. A value is kept as 32 bits, which hold either a float or a cost scaled to an int with
+ * {@link DataStructures.graph.IntegerCosts}; an agent uses one kind or the other for all its values.
+ */
+public class LearnedHeuristics {
+
+    /**
+     * The number of plain estimates an agent keeps unless told otherwise.
+     */
+    public static final int DEFAULT_MAX_ESTIMATES = 4096;
+
+    /**
+     * Returned by {@link #get(int)} for nodes without a value.
+     */
+    public static final float MISSING = Float.NaN;
+
+    /**
+     * Returned by {@link #getInteger(int)} for nodes without a value.
+     */
+    public static final int MISSING_INTEGER = Integer.MIN_VALUE;
+
+    private static final int EMPTY = -1;
+
+    private final int maxEstimates;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] learned;
+    private int mask;
+
+    private int size = 0;
+    private int estimates = 0;
+    private int hand = 0;
+    private boolean searching = false;
+
+    public LearnedHeuristics() {
+        this(DEFAULT_MAX_ESTIMATES);
+    }
+
+    /**
+     * @param maxEstimates the number of plain estimates kept before old ones are dropped
+     */
+    public LearnedHeuristics(int maxEstimates) {
+        if (maxEstimates < 1) {
+            throw new IllegalArgumentException("Estimate bound must be at least 1 but was " + maxEstimates);
+        }
+        this.maxEstimates = maxEstimates;
+        allocate(16);
+    }
+
+    /**
+     * Returns the value stored for a node, or {@link #MISSING} if there is none.
+     */
+    public float get(int node) {
+        int slot = find(node);
+        return slot < 0 ? MISSING : Float.intBitsToFloat(values[slot]);
+    }
+
+    /**
+     * Returns the scaled integer value stored for a node, or {@link #MISSING_INTEGER} if there is none.
+     */
+    public int getInteger(int node) {
+        int slot = find(node);
+        return slot < 0 ? MISSING_INTEGER : values[slot];
+    }
+
+    public boolean contains(int node) {
+        return find(node) >= 0;
+    }
+
+    /**
+     * Store a plain estimate for a node, dropping an older estimate if the bound is reached outside a search.
+     * Nodes which already have a value keep it.
+     */
+    public void putEstimate(int node, float value) {
+        putEstimateInteger(node, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Store a plain estimate scaled to an integer, see {@link #putEstimate(int, float)}.
+     */
+    public void putEstimateInteger(int node, int value) {
+        if (find(node) >= 0) {
+            return;
+        }
+        if (estimates >= maxEstimates && !searching) {
+            evictEstimate();
+        }
+        insert(node, value, false);
+        estimates += 1;
+    }
+
+    /**
+     * Replace the value of a node with a learned one. Nodes without a value are left alone.
+     * @return true if the node had a value
+     */
+    public boolean learn(int node, float value) {
+        return learnInteger(node, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Replace the value of a node with a learned one scaled to an integer, see {@link #learn(int, float)}.
+     * @return true if the node had a value
+     */
+    public boolean learnInteger(int node, int value) {
+        int slot = find(node);
+        if (slot < 0) {
+            return false;
+        }
+        if (!learned[slot]) {
+            learned[slot] = true;
+            estimates -= 1;
+        }
+        values[slot] = value;
+        return true;
+    }
+
+    /**
+     * Stop dropping estimates until {@link #endSearch()}, so the estimates of the nodes a search generates are
+     * still there to be replaced by learned values. The bound may be exceeded meanwhile.
+     */
+    public void beginSearch() {
+        searching = true;
+    }
+
+    /**
+     * Drop old estimates until the bound holds again.
+     */
+    public void endSearch() {
+        searching = false;
+        while (estimates > maxEstimates) {
+            evictEstimate();
+        }
+    }
+
+    /**
+     * Remove every value.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        estimates = 0;
+        hand = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of learned values, which are never dropped.
+     */
+    public int learnedCount() {
+        return size - estimates;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private int home(int node) {
+        int hash = node * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int find(int node) {
+        int slot = home(node);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == node) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Add an entry for a node which has none, growing the table if it is half full.
+     */
+    private void insert(int node, int value, boolean isLearned) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int slot = home(node);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = node;
+        values[slot] = value;
+        learned[slot] = isLearned;
+        size += 1;
+    }
+
+    /**
+     * Advance the clock hand to the next plain estimate and remove it.
+     */
+    private void evictEstimate() {
+        while (true) {
+            hand = (hand + 1) & mask;
+            if (keys[hand] != EMPTY && !learned[hand]) {
+                removeAt(hand);
+                estimates -= 1;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove the entry in a slot, shifting later entries of the same probe run back so no tombstone is needed.
+     */
+    private void removeAt(int slot) {
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == EMPTY) {
+                break;
+            }
+            int home = home(keys[next]);
+            boolean stays = gap <= next
+                    ? (gap < home && home <= next)
+                    : (gap < home || home <= next);
+            if (!stays) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                learned[gap] = learned[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size -= 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        learned = new boolean[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldLearned = learned;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = home(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                learned[slot] = oldLearned[i];
+            }
+        }
+        hand = 0;
+    }
+}
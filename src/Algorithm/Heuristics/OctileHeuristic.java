@@ -0,0 +1,23 @@
+package Algorithm.Heuristics;
+
+import DataStructures.graph.IntegerCosts;
+import DataStructures.graph.Node;
+
+/**
+ * The octile distance between two nodes, the exact distance on an empty 8-connected grid. This is the heuristic
+ * agents use unless given another.
+ */
+public class OctileHeuristic implements HeuristicProvider {
+
+    public static final OctileHeuristic INSTANCE = new OctileHeuristic();
+
+    @Override
+    public double estimate(Node from, Node to) {
+        return from.octileDistance(to);
+    }
+
+    @Override
+    public int estimateInteger(Node from, Node to) {
+        return IntegerCosts.octile(from, to);
+    }
+}
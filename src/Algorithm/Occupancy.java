@@ -0,0 +1,83 @@
+package Algorithm;
+
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+import Error.CollisionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records which agent occupies each node of a graph during one simulation.
+ *
+ * Occupancy is kept apart from the graph so the graph itself stays immutable and can be shared by any number of
+ * simulations, including simulations running concurrently. Each simulation owns one Occupancy. Agents are given
+ * an id when they register, and the occupier of every node is stored as an agent id in a flat array indexed by
+ * {@link Node#getIndex()}.
+ */
+public class Occupancy {
+
+    public static final int EMPTY = -1;
+
+    private final int[] occupiers;
+    private final List<Agent> agents = new ArrayList<>();
+
+    public Occupancy(Graph graph) {
+        this.occupiers = new int[graph.indexBound()];
+        Arrays.fill(this.occupiers, EMPTY);
+    }
+
+    /**
+     * Register an agent with this occupancy and assign it an id.
+     * @param agent the agent to register
+     * @return the id assigned to the agent
+     */
+    public int register(Agent agent) {
+        int id = agents.size();
+        agents.add(agent);
+        agent.setId(id);
+        return id;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    public boolean isOccupied(Node node) {
+        return occupiers[node.getIndex()] != EMPTY;
+    }
+
+    /**
+     * Returns the agent occupying the given node, or null if it is unoccupied.
+     */
+    public Agent getAgent(Node node) {
+        int id = occupiers[node.getIndex()];
+        return id == EMPTY ? null : agents.get(id);
+    }
+
+    /**
+     * Returns the id of the agent occupying the given node, or {@link #EMPTY} if it is unoccupied.
+     */
+    public int getAgentId(Node node) {
+        return occupiers[node.getIndex()];
+    }
+
+    /**
+     * Record that an agent has moved into a node.
+     * @throws CollisionException if another agent already occupies the node
+     */
+    public void enter(Node node, Agent agent) {
+        int occupier = occupiers[node.getIndex()];
+        if (occupier != EMPTY) {
+            throw new CollisionException("Vertex collision at " + node +
+                    "between occupying agent " + agents.get(occupier) +  " and " + agent);
+        }
+        occupiers[node.getIndex()] = agent.getId();
+    }
+
+    /**
+     * Record that the agent occupying a node has left it.
+     */
+    public void leave(Node node) {
+        occupiers[node.getIndex()] = EMPTY;
+    }
+}
@@ -0,0 +1,159 @@
+package Algorithm.Pathfinding;
+
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Heuristics.OctileHeuristic;
+import Algorithm.SearchWorkspace;
+import DataStructures.IntKeyPriorityQueue;
+import DataStructures.IntPriorityQueue;
+import DataStructures.graph.Graph;
+import DataStructures.graph.IntegerCosts;
+import DataStructures.graph.NeighbourCursor;
+import DataStructures.graph.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A* over any graph. The search runs in the calling thread's {@link SearchWorkspace}.
+ *
+ * In integer cost mode edge weights, heuristic estimates and open list keys are all scaled to ints with
+ * {@link IntegerCosts}, so costs are compared exactly and ties between paths of equal length are always broken the
+ * same way.
+ */
+public class AStarPathEngine implements PathEngine {
+
+    private final Graph graph;
+    private final HeuristicProvider heuristic;
+    private final boolean integerCosts;
+
+    public AStarPathEngine(Graph graph) {
+        this(graph, OctileHeuristic.INSTANCE);
+    }
+
+    /**
+     * @param heuristic the heuristic guiding the search, which must be consistent for paths to be shortest
+     */
+    public AStarPathEngine(Graph graph, HeuristicProvider heuristic) {
+        this(graph, heuristic, false);
+    }
+
+    /**
+     * @param heuristic the heuristic guiding the search, which must be consistent for paths to be shortest
+     * @param integerCosts true to search with costs scaled to integers
+     */
+    public AStarPathEngine(Graph graph, HeuristicProvider heuristic, boolean integerCosts) {
+        this.graph = graph;
+        this.heuristic = heuristic;
+        this.integerCosts = integerCosts;
+    }
+
+    @Override
+    public List<Node> findPath(Node start, Node goal) {
+        if (!graph.sameComponent(start, goal)) {
+            return null;
+        }
+        if (integerCosts) {
+            return findPathInteger(start, goal);
+        }
+
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        workspace.reset();
+        IntPriorityQueue open = workspace.getOpen();
+        NeighbourCursor neighbours = graph.neighbourCursor();
+
+        int source = start.getIndex();
+        open.put(source, 0);
+        workspace.record(source, 0.00, SearchWorkspace.NO_PARENT);
+
+        while (!open.isEmpty()) {
+            int index = open.get();
+            Node n = graph.getNodeByIndex(index);
+            workspace.close(index);
+
+            if (n == goal) {
+                return constructPath(workspace, index);
+            }
+
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                if (!workspace.isClosed(m)) {
+                    Node neighbour = graph.getNodeByIndex(m);
+                    double g = workspace.getGCost(index) + neighbours.cost();
+
+                    if (open.contains(m)) {
+                        if (g < workspace.getGCost(m)) {
+                            open.update(m, g + heuristic.estimate(neighbour, goal));
+                            workspace.record(m, g, index);
+                        }
+                    }
+                    else {
+                        open.put(m, g + heuristic.estimate(neighbour, goal));
+                        workspace.record(m, g, index);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Node> findPathInteger(Node start, Node goal) {
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        workspace.reset();
+        IntKeyPriorityQueue open = workspace.getIntegerOpen();
+        NeighbourCursor neighbours = graph.neighbourCursor();
+
+        int source = start.getIndex();
+        open.put(source, 0);
+        workspace.recordInteger(source, 0, SearchWorkspace.NO_PARENT);
+
+        while (!open.isEmpty()) {
+            int index = open.get();
+            workspace.close(index);
+
+            if (index == goal.getIndex()) {
+                return constructPath(workspace, index);
+            }
+
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                if (!workspace.isClosed(m)) {
+                    int g = workspace.getIntegerGCost(index) + neighbours.integerCost();
+
+                    if (open.contains(m)) {
+                        if (g < workspace.getIntegerGCost(m)) {
+                            open.update(m, f(g, m, goal));
+                            workspace.recordInteger(m, g, index);
+                        }
+                    }
+                    else {
+                        open.put(m, f(g, m, goal));
+                        workspace.recordInteger(m, g, index);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The integer f-cost of a node, saturating rather than overflowing when the estimate is infinite.
+     */
+    private int f(int g, int node, Node goal) {
+        long f = (long) g + heuristic.estimateInteger(graph.getNodeByIndex(node), goal);
+        return (int) Math.min(Integer.MAX_VALUE, f);
+    }
+
+    private List<Node> constructPath(SearchWorkspace workspace, int target) {
+        List<Node> path = new ArrayList<>();
+        int n = target;
+        while (n != SearchWorkspace.NO_PARENT) {
+            path.add(graph.getNodeByIndex(n));
+            n = workspace.getParent(n);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
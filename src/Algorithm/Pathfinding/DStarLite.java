@@ -0,0 +1,356 @@
+package Algorithm.Pathfinding;
+
+import Algorithm.Heuristics.HeuristicProvider;
+import DataStructures.IntIntHashMap;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * D* Lite (Koenig and Likhachev, 2002), an incremental search which keeps its search tree while the start moves
+ * and nodes become blocked or free, and repairs only the part of the tree the changes affect.
+ *
+ * The search runs backwards from the goal, so g(n) is the cost of the best known path from n to the goal. Blocked
+ * nodes can not be entered or left. Only the nodes the search touches get state, kept in slots found through an
+ * {@link IntIntHashMap}, so a planner costs memory in proportion to the area it has searched rather than to the
+ * graph. The priority queue uses lazy deletion: a node is queued again whenever its key changes, and entries which
+ * no longer match the node's state are skipped when they reach the top.
+ *
+ * Searches can be bounded by a number of expansions, in which case {@link #computeShortestPath(int)} carries on
+ * where it stopped the next time it is called.
+ */
+public class DStarLite {
+
+    private final Graph graph;
+    private final HeuristicProvider heuristic;
+
+    private final IntIntHashMap slots = new IntIntHashMap();
+    private int[] slotNodes = new int[64];
+    private double[] g = new double[64];
+    private double[] rhs = new double[64];
+    private boolean[] blocked = new boolean[64];
+    private int slotCount = 0;
+
+    private double[] queueKeys = new double[128];
+    private int[] queueNodes = new int[64];
+    private int queueSize = 0;
+
+    private Node start;
+    private Node goal;
+    private double km = 0;
+
+    public DStarLite(Graph graph, HeuristicProvider heuristic) {
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("D* Lite needs an undirected graph");
+        }
+        this.graph = graph;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Forget everything and plan from a start to a new goal. Blocked nodes are forgotten too.
+     */
+    public void reset(Node start, Node goal) {
+        slots.clear();
+        slotCount = 0;
+        queueSize = 0;
+        km = 0;
+        this.start = start;
+        this.goal = goal;
+
+        int s = slot(goal.getIndex());
+        rhs[s] = 0;
+        push(goal.getIndex());
+    }
+
+    public Node getGoal() {
+        return goal;
+    }
+
+    /**
+     * Move the start of the search, keeping the search tree.
+     */
+    public void moveStart(Node node) {
+        if (node != start) {
+            km += heuristic.estimate(start, node);
+            start = node;
+        }
+    }
+
+    /**
+     * Mark a node as blocked or free, repairing the costs of the node and its neighbours.
+     */
+    public void setBlocked(Node node, boolean isBlocked) {
+        int s = slot(node.getIndex());
+        if (blocked[s] == isBlocked) {
+            return;
+        }
+        blocked[s] = isBlocked;
+
+        updateRhs(node);
+        for (Node neighbour : graph.getNeigbours(node)) {
+            updateRhs(neighbour);
+        }
+    }
+
+    public boolean isBlocked(Node node) {
+        int s = slots.get(node.getIndex());
+        return s != IntIntHashMap.MISSING && blocked[s];
+    }
+
+    /**
+     * Expand nodes until the start's cost is correct or the budget runs out.
+     * @param budget the largest number of expansions to make
+     * @return the number of expansions made
+     */
+    public int computeShortestPath(int budget) {
+        int expansions = 0;
+        while (expansions < budget) {
+            discardStaleTop();
+            if (queueSize == 0) {
+                break;
+            }
+            int startSlot = slot(start.getIndex());
+            double startK1 = Math.min(g[startSlot], rhs[startSlot]) + km;
+            double startK2 = Math.min(g[startSlot], rhs[startSlot]);
+            if (!less(queueKeys[0], queueKeys[1], startK1, startK2) && rhs[startSlot] <= g[startSlot]) {
+                break;
+            }
+
+            double oldK1 = queueKeys[0];
+            double oldK2 = queueKeys[1];
+            int u = pop();
+            int s = slots.get(u);
+            Node node = graph.getNodeByIndex(u);
+
+            double newK2 = Math.min(g[s], rhs[s]);
+            double newK1 = newK2 + heuristic.estimate(start, node) + km;
+            if (less(oldK1, oldK2, newK1, newK2)) {
+                push(u);
+                continue;
+            }
+
+            expansions += 1;
+            if (g[s] > rhs[s]) {
+                g[s] = rhs[s];
+                for (Node neighbour : graph.getNeigbours(node)) {
+                    if (neighbour != goal) {
+                        int n = slot(neighbour.getIndex());
+                        double cost = cost(neighbour, node) + g[s];
+                        if (cost < rhs[n]) {
+                            rhs[n] = cost;
+                            updateVertex(neighbour.getIndex());
+                        }
+                    }
+                }
+            }
+            else {
+                g[s] = Double.POSITIVE_INFINITY;
+                updateRhs(node);
+                for (Node neighbour : graph.getNeigbours(node)) {
+                    updateRhs(neighbour);
+                }
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Returns whether the cost from the start is known to be correct, so following {@link #path(Node, int)} gives
+     * a shortest path.
+     */
+    public boolean isConsistent() {
+        discardStaleTop();
+        int s = slot(start.getIndex());
+        if (rhs[s] > g[s]) {
+            return false;
+        }
+        double k2 = Math.min(g[s], rhs[s]);
+        return queueSize == 0 || !less(queueKeys[0], queueKeys[1], k2 + km, k2);
+    }
+
+    /**
+     * Returns the cost of the best known path from a node to the goal, infinite if none is known. This is the
+     * one-step lookahead cost, which is exact for the start once the search is consistent even when the start
+     * itself was never expanded.
+     */
+    public double distance(Node node) {
+        int s = slots.get(node.getIndex());
+        return s == IntIntHashMap.MISSING ? Double.POSITIVE_INFINITY : rhs[s];
+    }
+
+    /**
+     * Follow the search tree from a node towards the goal, each step going to the neighbour with the lowest cost.
+     * @param from the node to start from
+     * @param maxSteps the largest number of steps to take
+     * @return the nodes visited, starting with the given node
+     */
+    public List<Node> path(Node from, int maxSteps) {
+        List<Node> path = new ArrayList<>();
+        path.add(from);
+        Node current = from;
+        for (int i = 0; i < maxSteps && current != goal; i++) {
+            Node best = null;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (Node neighbour : graph.getNeigbours(current)) {
+                double cost = cost(current, neighbour) + cost(neighbour);
+                if (cost < bestCost) {
+                    best = neighbour;
+                    bestCost = cost;
+                }
+            }
+            if (best == null || bestCost == Double.POSITIVE_INFINITY || path.contains(best)) {
+                break;
+            }
+            path.add(best);
+            current = best;
+        }
+        return path;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private double cost(Node from, Node to) {
+        if (isBlocked(from) || isBlocked(to)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return graph.getEdge(from, to).getWeight();
+    }
+
+    /**
+     * The expanded cost g of a node, infinite for nodes the search has not reached.
+     */
+    private double cost(Node node) {
+        int s = slots.get(node.getIndex());
+        return s == IntIntHashMap.MISSING ? Double.POSITIVE_INFINITY : g[s];
+    }
+
+    /**
+     * Recompute the one-step lookahead cost of a node from its neighbours.
+     */
+    private void updateRhs(Node node) {
+        if (node == goal) {
+            return;
+        }
+        int s = slot(node.getIndex());
+        double best = Double.POSITIVE_INFINITY;
+        for (Node neighbour : graph.getNeigbours(node)) {
+            best = Math.min(best, cost(node, neighbour) + cost(neighbour));
+        }
+        rhs[s] = best;
+        updateVertex(node.getIndex());
+    }
+
+    private void updateVertex(int node) {
+        int s = slots.get(node);
+        if (g[s] != rhs[s]) {
+            push(node);
+        }
+    }
+
+    private int slot(int node) {
+        int s = slots.get(node);
+        if (s == IntIntHashMap.MISSING) {
+            if (slotCount == slotNodes.length) {
+                int capacity = slotCount * 2;
+                slotNodes = Arrays.copyOf(slotNodes, capacity);
+                g = Arrays.copyOf(g, capacity);
+                rhs = Arrays.copyOf(rhs, capacity);
+                blocked = Arrays.copyOf(blocked, capacity);
+            }
+            s = slotCount++;
+            slots.put(node, s);
+            slotNodes[s] = node;
+            g[s] = Double.POSITIVE_INFINITY;
+            rhs[s] = Double.POSITIVE_INFINITY;
+            blocked[s] = false;
+        }
+        return s;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Priority queue of (k1, k2, node) entries ordered lexicographically by key, with lazy deletion
+
+    /**
+     * First parts of keys closer than this are treated as equal. A node next to the start can have the same first
+     * key part as the start, and only the second part tells them apart. Rounding in the sums of path costs,
+     * heuristics and km would otherwise order them the wrong way round and end a search early.
+     */
+    private static final double KEY_TOLERANCE = 1e-9;
+
+    private static boolean less(double a1, double a2, double b1, double b2) {
+        if (a1 == b1 || Math.abs(a1 - b1) <= KEY_TOLERANCE) {
+            return a2 < b2;
+        }
+        return a1 < b1;
+    }
+
+    /**
+     * Pop entries from the top of the queue whose node is no longer inconsistent.
+     */
+    private void discardStaleTop() {
+        while (queueSize > 0) {
+            int s = slots.get(queueNodes[0]);
+            if (g[s] != rhs[s]) {
+                return;
+            }
+            pop();
+        }
+    }
+
+    private void push(int node) {
+        int s = slots.get(node);
+        double k2 = Math.min(g[s], rhs[s]);
+        double k1 = k2 + heuristic.estimate(start, graph.getNodeByIndex(node)) + km;
+
+        if (queueSize == queueNodes.length) {
+            queueNodes = Arrays.copyOf(queueNodes, queueSize * 2);
+            queueKeys = Arrays.copyOf(queueKeys, queueSize * 4);
+        }
+        int index = queueSize++;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!less(k1, k2, queueKeys[2 * parent], queueKeys[2 * parent + 1])) {
+                break;
+            }
+            place(index, queueNodes[parent], queueKeys[2 * parent], queueKeys[2 * parent + 1]);
+            index = parent;
+        }
+        place(index, node, k1, k2);
+    }
+
+    private int pop() {
+        int top = queueNodes[0];
+        queueSize -= 1;
+        if (queueSize > 0) {
+            int node = queueNodes[queueSize];
+            double k1 = queueKeys[2 * queueSize];
+            double k2 = queueKeys[2 * queueSize + 1];
+            int index = 0;
+            int child = 1;
+            while (child < queueSize) {
+                if (child + 1 < queueSize && less(queueKeys[2 * child + 2], queueKeys[2 * child + 3],
+                        queueKeys[2 * child], queueKeys[2 * child + 1])) {
+                    child += 1;
+                }
+                if (!less(queueKeys[2 * child], queueKeys[2 * child + 1], k1, k2)) {
+                    break;
+                }
+                place(index, queueNodes[child], queueKeys[2 * child], queueKeys[2 * child + 1]);
+                index = child;
+                child = 2 * index + 1;
+            }
+            place(index, node, k1, k2);
+        }
+        return top;
+    }
+
+    private void place(int index, int node, double k1, double k2) {
+        queueNodes[index] = node;
+        queueKeys[2 * index] = k1;
+        queueKeys[2 * index + 1] = k2;
+    }
+}
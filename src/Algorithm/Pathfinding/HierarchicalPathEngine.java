@@ -0,0 +1,537 @@
+package Algorithm.Pathfinding;
+
+import Algorithm.SearchWorkspace;
+import DataStructures.IntPriorityQueue;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+import java.util.*;
+
+/**
+ * Hierarchical path-finding A* (HPA*, Botea, Muller and Schaeffer, 2004) over a graph whose nodes have grid
+ * coordinates.
+ *
+ * The map is cut into square clusters. Wherever edges cross between two clusters, each connected run of crossing
+ * edges becomes an entrance: the pair of nodes either side of the middle of the run, or of both ends of a long run,
+ * become nodes of an abstract graph joined by the crossing edge. Abstract nodes in the same cluster are joined by
+ * the cost of the shortest path between them inside the cluster. The abstract graph is built once and shared by
+ * every query, and {@link #forGraph(Graph, int)} keeps one per graph. It is kept as arrays of node indexes alone,
+ * so the cache does not keep the graph alive and forgets the abstract graph once the graph is no longer used.
+ *
+ * A long query links the start and goal to the abstract nodes of their clusters, searches the abstract graph, and
+ * refines each abstract edge into a path with a search confined to one cluster. Paths found this way are usually
+ * within a few percent of the shortest. Short queries, and the rare long query the abstract graph cannot answer,
+ * are passed to an exact engine instead.
+ */
+public class HierarchicalPathEngine implements PathEngine {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /**
+     * Entrances at least this long get an abstract node pair at each end instead of one in the middle.
+     */
+    private static final int LONG_ENTRANCE = 6;
+
+    /**
+     * Queries whose ends are closer than this many cluster widths are answered by the exact engine.
+     */
+    private static final int SHORT_QUERY_CLUSTERS = 2;
+
+    private static final Map<Graph, Map<Integer, Abstraction>> cache = new WeakHashMap<>();
+
+    private final Graph graph;
+    private final int clusterSize;
+    private final PathEngine exact;
+
+    private final int clustersX;
+    private final int[] clusterOf;
+
+    private final int[] abstractNodes;
+    private final int[] abstractIds;
+    private final int[][] clusterMembers;
+    private final int[][] neighbours;
+    private final double[][] costs;
+
+    /**
+     * Return a hierarchical engine for a graph, building its abstract graph the first time it is asked for. Engines
+     * returned for the same graph and cluster size share one abstract graph.
+     * @param graph the graph to find paths on
+     * @param clusterSize the width and height of a cluster in cells
+     * @return the engine for the graph
+     */
+    public static HierarchicalPathEngine forGraph(Graph graph, int clusterSize) {
+        synchronized (cache) {
+            Map<Integer, Abstraction> abstractions = cache.computeIfAbsent(graph, g -> new HashMap<>());
+            Abstraction abstraction = abstractions.get(clusterSize);
+            if (abstraction == null) {
+                HierarchicalPathEngine engine = new HierarchicalPathEngine(graph, clusterSize);
+                abstractions.put(clusterSize, engine.abstraction());
+                return engine;
+            }
+            return new HierarchicalPathEngine(graph, clusterSize, abstraction);
+        }
+    }
+
+    public HierarchicalPathEngine(Graph graph) {
+        this(graph, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Build the abstract graph of a graph.
+     * @param graph the graph, which must be undirected
+     * @param clusterSize the width and height of a cluster in cells
+     */
+    public HierarchicalPathEngine(Graph graph, int clusterSize) {
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("Hierarchical path-finding needs an undirected graph");
+        }
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2 but was " + clusterSize);
+        }
+        this.graph = graph;
+        this.clusterSize = clusterSize;
+        this.exact = PathEngine.forGraph(graph);
+
+        int maxX = 0;
+        int maxY = 0;
+        for (Node node : graph.nodes()) {
+            maxX = Math.max(maxX, node.getX());
+            maxY = Math.max(maxY, node.getY());
+        }
+        this.clustersX = maxX / clusterSize + 1;
+        int clusterCount = clustersX * (maxY / clusterSize + 1);
+
+        this.clusterOf = new int[graph.indexBound()];
+        Arrays.fill(clusterOf, -1);
+        for (Node node : graph.nodes()) {
+            clusterOf[node.getIndex()] = cluster(node);
+        }
+
+        // Abstract nodes and the edges between clusters
+        this.abstractIds = new int[graph.indexBound()];
+        Arrays.fill(abstractIds, -1);
+        List<Integer> nodes = new ArrayList<>();
+        List<List<Integer>> neighbourLists = new ArrayList<>();
+        List<List<Double>> costLists = new ArrayList<>();
+
+        for (List<int[]> crossings : crossingsByClusterPair().values()) {
+            crossings.sort(Comparator.<int[]>comparingInt(c -> y(c[0]))
+                    .thenComparingInt(c -> x(c[0]))
+                    .thenComparingInt(c -> y(c[1]))
+                    .thenComparingInt(c -> x(c[1])));
+
+            int runStart = 0;
+            for (int i = 1; i <= crossings.size(); i++) {
+                if (i < crossings.size() && adjacent(crossings.get(i - 1), crossings.get(i))) {
+                    continue;
+                }
+                int runLength = i - runStart;
+                if (runLength >= LONG_ENTRANCE) {
+                    addEntrance(crossings.get(runStart), nodes, neighbourLists, costLists);
+                    addEntrance(crossings.get(i - 1), nodes, neighbourLists, costLists);
+                }
+                else {
+                    addEntrance(crossings.get(runStart + runLength / 2), nodes, neighbourLists, costLists);
+                }
+                runStart = i;
+            }
+        }
+
+        this.abstractNodes = nodes.stream().mapToInt(Integer::intValue).toArray();
+
+        List<List<Integer>> members = new ArrayList<>(clusterCount);
+        for (int c = 0; c < clusterCount; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int id = 0; id < abstractNodes.length; id++) {
+            members.get(clusterOf[abstractNodes[id]]).add(id);
+        }
+        this.clusterMembers = new int[clusterCount][];
+        for (int c = 0; c < clusterCount; c++) {
+            clusterMembers[c] = members.get(c).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Edges inside each cluster
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        for (int id = 0; id < abstractNodes.length; id++) {
+            int source = abstractNodes[id];
+            search(workspace, source, -1, clusterOf[source]);
+            for (int other : clusterMembers[clusterOf[source]]) {
+                if (other != id && workspace.isClosed(abstractNodes[other])) {
+                    neighbourLists.get(id).add(other);
+                    costLists.get(id).add(workspace.getGCost(abstractNodes[other]));
+                }
+            }
+        }
+
+        this.neighbours = new int[abstractNodes.length][];
+        this.costs = new double[abstractNodes.length][];
+        for (int id = 0; id < abstractNodes.length; id++) {
+            neighbours[id] = neighbourLists.get(id).stream().mapToInt(Integer::intValue).toArray();
+            costs[id] = costLists.get(id).stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+
+    private HierarchicalPathEngine(Graph graph, int clusterSize, Abstraction abstraction) {
+        this.graph = graph;
+        this.clusterSize = clusterSize;
+        this.exact = PathEngine.forGraph(graph);
+
+        this.clustersX = abstraction.clustersX;
+        this.clusterOf = abstraction.clusterOf;
+        this.abstractNodes = abstraction.abstractNodes;
+        this.abstractIds = abstraction.abstractIds;
+        this.clusterMembers = abstraction.clusterMembers;
+        this.neighbours = abstraction.neighbours;
+        this.costs = abstraction.costs;
+    }
+
+    private Abstraction abstraction() {
+        return new Abstraction(clustersX, clusterOf, abstractNodes, abstractIds, clusterMembers, neighbours, costs);
+    }
+
+    /**
+     * The abstract graph of an engine, which refers to nodes only by their indexes.
+     */
+    private static class Abstraction {
+        private final int clustersX;
+        private final int[] clusterOf;
+        private final int[] abstractNodes;
+        private final int[] abstractIds;
+        private final int[][] clusterMembers;
+        private final int[][] neighbours;
+        private final double[][] costs;
+
+        private Abstraction(int clustersX, int[] clusterOf, int[] abstractNodes, int[] abstractIds,
+                            int[][] clusterMembers, int[][] neighbours, double[][] costs) {
+            this.clustersX = clustersX;
+            this.clusterOf = clusterOf;
+            this.abstractNodes = abstractNodes;
+            this.abstractIds = abstractIds;
+            this.clusterMembers = clusterMembers;
+            this.neighbours = neighbours;
+            this.costs = costs;
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Returns the number of nodes in the abstract graph.
+     */
+    public int abstractSize() {
+        return abstractNodes.length;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    @Override
+    public List<Node> findPath(Node start, Node goal) {
+        Route route = findRoute(start, goal);
+        return route == null ? null : route.getPath();
+    }
+
+    /**
+     * Find a path between two nodes, along with the abstract nodes it passes through.
+     * @return the route, or null if the goal cannot be reached
+     */
+    public Route findRoute(Node start, Node goal) {
+        if (!graph.sameComponent(start, goal)) {
+            return null;
+        }
+        if (clusterOf[start.getIndex()] == clusterOf[goal.getIndex()] ||
+                start.octileDistance(goal) < SHORT_QUERY_CLUSTERS * clusterSize) {
+            return exactRoute(start, goal);
+        }
+
+        int[] abstractPath = abstractSearch(start, goal);
+        if (abstractPath == null) {
+            return exactRoute(start, goal);
+        }
+        return refine(start, goal, abstractPath);
+    }
+
+    /**
+     * A route found by the engine.
+     */
+    public static class Route {
+        private final List<Node> path;
+        private final List<Node> waypoints;
+
+        private Route(List<Node> path, List<Node> waypoints) {
+            this.path = path;
+            this.waypoints = waypoints;
+        }
+
+        /**
+         * Returns every node on the route in order, including the start and goal.
+         */
+        public List<Node> getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the node where the route enters each new cluster, in order, followed by the goal. Routes answered
+         * by the exact engine have only the goal.
+         */
+        public List<Node> getWaypoints() {
+            return waypoints;
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private Route exactRoute(Node start, Node goal) {
+        List<Node> path = exact.findPath(start, goal);
+        return path == null ? null : new Route(path, List.of(goal));
+    }
+
+    /**
+     * A* over the abstract graph, with the start and goal linked to the abstract nodes of their clusters.
+     * @return the ids of the abstract nodes on the path, where -1 stands for the start and -2 for the goal
+     */
+    private int[] abstractSearch(Node start, Node goal) {
+        int size = abstractNodes.length;
+        int startId = size;
+        int goalId = size + 1;
+
+        double[] startCosts = clusterCosts(start);
+        double[] goalCosts = clusterCosts(goal);
+        int[] startMembers = clusterMembers[clusterOf[start.getIndex()]];
+        int goalCluster = clusterOf[goal.getIndex()];
+
+        double[] g = new double[size + 2];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        int[] parents = new int[size + 2];
+        boolean[] closed = new boolean[size + 2];
+        IntPriorityQueue open = new IntPriorityQueue(size + 2);
+
+        g[startId] = 0;
+        parents[startId] = -1;
+        open.put(startId, start.octileDistance(goal));
+
+        while (!open.isEmpty()) {
+            int id = open.get();
+            closed[id] = true;
+
+            if (id == goalId) {
+                int length = 0;
+                for (int x = id; x != -1; x = parents[x]) {
+                    length += 1;
+                }
+                int[] path = new int[length];
+                for (int x = id; x != -1; x = parents[x]) {
+                    path[--length] = x == startId ? -1 : x == goalId ? -2 : x;
+                }
+                return path;
+            }
+
+            if (id == startId) {
+                for (int i = 0; i < startMembers.length; i++) {
+                    relax(open, g, parents, closed, id, startMembers[i], startCosts[i], goal, goalId);
+                }
+                continue;
+            }
+
+            for (int i = 0; i < neighbours[id].length; i++) {
+                relax(open, g, parents, closed, id, neighbours[id][i], costs[id][i], goal, goalId);
+            }
+            if (clusterOf[abstractNodes[id]] == goalCluster) {
+                int[] goalMembers = clusterMembers[goalCluster];
+                for (int i = 0; i < goalMembers.length; i++) {
+                    if (goalMembers[i] == id) {
+                        relax(open, g, parents, closed, id, goalId, goalCosts[i], goal, goalId);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void relax(IntPriorityQueue open, double[] g, int[] parents, boolean[] closed,
+                       int from, int to, double cost, Node goal, int goalId) {
+        if (cost == Double.POSITIVE_INFINITY || closed[to]) {
+            return;
+        }
+        double candidate = g[from] + cost;
+        if (candidate < g[to]) {
+            double h = to == goalId ? 0 : graph.getNodeByIndex(abstractNodes[to]).octileDistance(goal);
+            if (open.contains(to)) {
+                open.update(to, candidate + h);
+            }
+            else {
+                open.put(to, candidate + h);
+            }
+            g[to] = candidate;
+            parents[to] = from;
+        }
+    }
+
+    /**
+     * The cost from a node to each abstract node of its cluster, moving only inside the cluster, in the order of
+     * the cluster's members. Unreachable members cost infinity.
+     */
+    private double[] clusterCosts(Node node) {
+        int cluster = clusterOf[node.getIndex()];
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        search(workspace, node.getIndex(), -1, cluster);
+
+        int[] members = clusterMembers[cluster];
+        double[] result = new double[members.length];
+        for (int i = 0; i < members.length; i++) {
+            int member = abstractNodes[members[i]];
+            result[i] = workspace.isClosed(member) ? workspace.getGCost(member) : Double.POSITIVE_INFINITY;
+        }
+        return result;
+    }
+
+    /**
+     * Turn an abstract path into a full path. Crossing edges are single steps, every other abstract edge is
+     * found again with a search inside its cluster.
+     */
+    private Route refine(Node start, Node goal, int[] abstractPath) {
+        List<Node> path = new ArrayList<>();
+        List<Node> waypoints = new ArrayList<>();
+        path.add(start);
+
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        int previous = start.getIndex();
+        for (int i = 1; i < abstractPath.length; i++) {
+            int next = abstractPath[i] == -2 ? goal.getIndex() : abstractNodes[abstractPath[i]];
+            if (next == previous) {
+                continue;
+            }
+            if (clusterOf[next] != clusterOf[previous]) {
+                path.add(graph.getNodeByIndex(next));
+                waypoints.add(graph.getNodeByIndex(next));
+            }
+            else {
+                search(workspace, previous, next, clusterOf[previous]);
+                int from = path.size();
+                for (int x = next; x != previous; x = workspace.getParent(x)) {
+                    path.add(graph.getNodeByIndex(x));
+                }
+                Collections.reverse(path.subList(from, path.size()));
+            }
+            previous = next;
+        }
+        if (waypoints.isEmpty() || waypoints.get(waypoints.size() - 1) != goal) {
+            waypoints.add(goal);
+        }
+        return new Route(path, waypoints);
+    }
+
+    /**
+     * Search from a node without leaving its cluster, as Dijkstra's algorithm over the whole cluster if no target
+     * is given and as A* otherwise. Results are left in the workspace.
+     */
+    private void search(SearchWorkspace workspace, int source, int target, int cluster) {
+        workspace.reset();
+        IntPriorityQueue open = workspace.getOpen();
+        Node targetNode = target == -1 ? null : graph.getNodeByIndex(target);
+
+        open.put(source, 0);
+        workspace.record(source, 0.00, SearchWorkspace.NO_PARENT);
+        while (!open.isEmpty()) {
+            int index = open.get();
+            workspace.close(index);
+            if (index == target) {
+                return;
+            }
+
+            Node n = graph.getNodeByIndex(index);
+            for (Node neighbour : graph.getNeigbours(n)) {
+                int m = neighbour.getIndex();
+                if (clusterOf[m] != cluster || workspace.isClosed(m)) {
+                    continue;
+                }
+                double g = workspace.getGCost(index) + graph.getEdge(n, neighbour).getWeight();
+                double h = targetNode == null ? 0 : neighbour.octileDistance(targetNode);
+                if (open.contains(m)) {
+                    if (g < workspace.getGCost(m)) {
+                        open.update(m, g + h);
+                        workspace.record(m, g, index);
+                    }
+                }
+                else {
+                    open.put(m, g + h);
+                    workspace.record(m, g, index);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Every edge between two clusters as a (node, neighbour) pair of indexes, grouped by the pair of clusters.
+     * The node is always in the lower numbered cluster.
+     */
+    private Map<Long, List<int[]>> crossingsByClusterPair() {
+        Map<Long, List<int[]>> crossings = new HashMap<>();
+        for (Node node : graph.nodes()) {
+            int a = clusterOf[node.getIndex()];
+            for (Node neighbour : graph.getNeigbours(node)) {
+                int b = clusterOf[neighbour.getIndex()];
+                if (a < b) {
+                    long key = (long) a * clusterOf.length + b;
+                    crossings.computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(new int[]{node.getIndex(), neighbour.getIndex()});
+                }
+            }
+        }
+        return crossings;
+    }
+
+    /**
+     * Whether two crossings belong to the same entrance, which is when the nodes on each side are the same or
+     * neighbours.
+     */
+    private boolean adjacent(int[] a, int[] b) {
+        return touching(a[0], b[0]) && touching(a[1], b[1]);
+    }
+
+    private boolean touching(int a, int b) {
+        return a == b || graph.getEdge(graph.getNodeByIndex(a), graph.getNodeByIndex(b)) != null;
+    }
+
+    private void addEntrance(int[] crossing, List<Integer> nodes,
+                             List<List<Integer>> neighbourLists, List<List<Double>> costLists) {
+        int a = abstractId(crossing[0], nodes, neighbourLists, costLists);
+        int b = abstractId(crossing[1], nodes, neighbourLists, costLists);
+        double cost = graph.getEdge(graph.getNodeByIndex(crossing[0]), graph.getNodeByIndex(crossing[1])).getWeight();
+        if (!neighbourLists.get(a).contains(b)) {
+            neighbourLists.get(a).add(b);
+            costLists.get(a).add(cost);
+            neighbourLists.get(b).add(a);
+            costLists.get(b).add(cost);
+        }
+    }
+
+    private int abstractId(int node, List<Integer> nodes,
+                           List<List<Integer>> neighbourLists, List<List<Double>> costLists) {
+        if (abstractIds[node] == -1) {
+            abstractIds[node] = nodes.size();
+            nodes.add(node);
+            neighbourLists.add(new ArrayList<>());
+            costLists.add(new ArrayList<>());
+        }
+        return abstractIds[node];
+    }
+
+    private int cluster(Node node) {
+        return (node.getY() / clusterSize) * clustersX + node.getX() / clusterSize;
+    }
+
+    private int x(int node) {
+        return graph.getNodeByIndex(node).getX();
+    }
+
+    private int y(int node) {
+        return graph.getNodeByIndex(node).getY();
+    }
+}
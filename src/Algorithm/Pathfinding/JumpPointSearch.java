@@ -0,0 +1,214 @@
+package Algorithm.Pathfinding;
+
+import Algorithm.SearchWorkspace;
+import DataStructures.IntPriorityQueue;
+import DataStructures.graph.GridGraph;
+import DataStructures.graph.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Jump point search (Harabor and Grastien, 2011) over a {@link GridGraph}.
+ *
+ * On a uniform cost grid most shortest paths have many symmetric variants. Jump point search only expands the
+ * nodes where a path may have to turn, the jump points, and scans along straight and diagonal lines between them
+ * without touching the open list. It finds paths of the same cost as A*.
+ *
+ * The grid allows a diagonal move whenever the diagonal cell is passable, even if both cells beside the move are
+ * blocked, so the pruning rules are those for unrestricted diagonal movement. The path between jump points is
+ * filled in so the result lists every cell on the route, like the paths found by {@link AStarPathEngine}.
+ */
+public class JumpPointSearch implements PathEngine {
+
+    private static final double DIAGONAL = Math.sqrt(2);
+
+    private final GridGraph grid;
+    private final int width;
+
+    public JumpPointSearch(GridGraph grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+    }
+
+    @Override
+    public List<Node> findPath(Node start, Node goal) {
+        if (!grid.sameComponent(start, goal)) {
+            return null;
+        }
+
+        SearchWorkspace workspace = SearchWorkspace.forGraph(grid);
+        workspace.reset();
+        IntPriorityQueue open = workspace.getOpen();
+
+        int source = start.getIndex();
+        int target = goal.getIndex();
+        open.put(source, octile(source, target));
+        workspace.record(source, 0.00, SearchWorkspace.NO_PARENT);
+
+        while (!open.isEmpty()) {
+            int index = open.get();
+            workspace.close(index);
+
+            if (index == target) {
+                return constructPath(workspace, index);
+            }
+            identifySuccessors(workspace, index, target);
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Jump in every direction a shortest path through the node may continue in, and add the jump points found to
+     * the open list.
+     */
+    private void identifySuccessors(SearchWorkspace workspace, int index, int target) {
+        int x = index % width;
+        int y = index / width;
+        int parent = workspace.getParent(index);
+
+        if (parent == SearchWorkspace.NO_PARENT) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx != 0 || dy != 0) {
+                        successor(workspace, index, x, y, dx, dy, target);
+                    }
+                }
+            }
+            return;
+        }
+
+        int dx = Integer.signum(x - parent % width);
+        int dy = Integer.signum(y - parent / width);
+
+        if (dx != 0 && dy != 0) {
+            successor(workspace, index, x, y, 0, dy, target);
+            successor(workspace, index, x, y, dx, 0, target);
+            successor(workspace, index, x, y, dx, dy, target);
+            if (!passable(x - dx, y)) {
+                successor(workspace, index, x, y, -dx, dy, target);
+            }
+            if (!passable(x, y - dy)) {
+                successor(workspace, index, x, y, dx, -dy, target);
+            }
+        }
+        else if (dx != 0) {
+            successor(workspace, index, x, y, dx, 0, target);
+            if (!passable(x, y + 1)) {
+                successor(workspace, index, x, y, dx, 1, target);
+            }
+            if (!passable(x, y - 1)) {
+                successor(workspace, index, x, y, dx, -1, target);
+            }
+        }
+        else {
+            successor(workspace, index, x, y, 0, dy, target);
+            if (!passable(x + 1, y)) {
+                successor(workspace, index, x, y, 1, dy, target);
+            }
+            if (!passable(x - 1, y)) {
+                successor(workspace, index, x, y, -1, dy, target);
+            }
+        }
+    }
+
+    private void successor(SearchWorkspace workspace, int index, int x, int y, int dx, int dy, int target) {
+        int jumpPoint = jump(x, y, dx, dy, target);
+        if (jumpPoint == -1 || workspace.isClosed(jumpPoint)) {
+            return;
+        }
+
+        double g = workspace.getGCost(index) + octile(index, jumpPoint);
+        IntPriorityQueue open = workspace.getOpen();
+        if (open.contains(jumpPoint)) {
+            if (g < workspace.getGCost(jumpPoint)) {
+                open.update(jumpPoint, g + octile(jumpPoint, target));
+                workspace.record(jumpPoint, g, index);
+            }
+        }
+        else {
+            open.put(jumpPoint, g + octile(jumpPoint, target));
+            workspace.record(jumpPoint, g, index);
+        }
+    }
+
+    /**
+     * Scan from a cell in a direction until a jump point is found.
+     * @return the index of the jump point, or -1 if the scan runs into a blocked cell first
+     */
+    private int jump(int x, int y, int dx, int dy, int target) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!passable(x, y)) {
+                return -1;
+            }
+            int index = y * width + x;
+            if (index == target) {
+                return index;
+            }
+
+            if (dx != 0 && dy != 0) {
+                if ((passable(x - dx, y + dy) && !passable(x - dx, y)) ||
+                        (passable(x + dx, y - dy) && !passable(x, y - dy))) {
+                    return index;
+                }
+                // A diagonal step is a jump point if a jump point can be reached straight from it
+                if (jump(x, y, dx, 0, target) != -1 || jump(x, y, 0, dy, target) != -1) {
+                    return index;
+                }
+            }
+            else if (dx != 0) {
+                if ((passable(x + dx, y + 1) && !passable(x, y + 1)) ||
+                        (passable(x + dx, y - 1) && !passable(x, y - 1))) {
+                    return index;
+                }
+            }
+            else {
+                if ((passable(x + 1, y + dy) && !passable(x + 1, y)) ||
+                        (passable(x - 1, y + dy) && !passable(x - 1, y))) {
+                    return index;
+                }
+            }
+        }
+    }
+
+    /**
+     * Follow the parents back from the goal, filling in the cells on the straight or diagonal line between each
+     * jump point and its parent.
+     */
+    private List<Node> constructPath(SearchWorkspace workspace, int target) {
+        List<Node> path = new ArrayList<>();
+        int n = target;
+        int parent = workspace.getParent(n);
+        while (parent != SearchWorkspace.NO_PARENT) {
+            int x = n % width;
+            int y = n / width;
+            int dx = Integer.signum(parent % width - x);
+            int dy = Integer.signum(parent / width - y);
+            while (n != parent) {
+                path.add(grid.getNodeByIndex(n));
+                x += dx;
+                y += dy;
+                n = y * width + x;
+            }
+            parent = workspace.getParent(n);
+        }
+        path.add(grid.getNodeByIndex(n));
+        Collections.reverse(path);
+        return path;
+    }
+
+    private boolean passable(int x, int y) {
+        return grid.isPassable(x, y);
+    }
+
+    private double octile(int a, int b) {
+        int dx = Math.abs(a % width - b % width);
+        int dy = Math.abs(a / width - b / width);
+        return Math.max(dx, dy) + (DIAGONAL - 1) * Math.min(dx, dy);
+    }
+}
@@ -0,0 +1,36 @@
+package Algorithm.Pathfinding;
+
+import DataStructures.graph.Graph;
+import DataStructures.graph.GridGraph;
+import DataStructures.graph.Node;
+
+import java.util.List;
+
+/**
+ * Finds complete shortest paths over a graph, ignoring other agents. Used to plan an agent's full route before it
+ * starts moving, such as the route Waypoint BMAA decomposes into waypoints.
+ *
+ * Engines must be safe to use from several threads at once, as agents may plan their routes in parallel.
+ */
+public interface PathEngine {
+
+    /**
+     * Find a shortest path between two nodes.
+     * @param start the node the path starts at
+     * @param goal the node the path ends at
+     * @return every node on the path in order, including the start and goal, or null if the goal cannot be reached
+     */
+    List<Node> findPath(Node start, Node goal);
+
+    /**
+     * Returns the fastest engine available for a graph: jump point search on grids and A* otherwise.
+     * @param graph the graph paths will be found on
+     * @return an engine for the graph
+     */
+    static PathEngine forGraph(Graph graph) {
+        if (graph instanceof GridGraph) {
+            return new JumpPointSearch((GridGraph) graph);
+        }
+        return new AStarPathEngine(graph);
+    }
+}
@@ -0,0 +1,344 @@
+package Algorithm.Pibt;
+
+import Algorithm.Heuristics.GoalDistanceCache;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Occupancy;
+import Algorithm.Time;
+import Benchmark.ProblemSet;
+import Benchmark.Result;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+import Error.NoAgentAtGoalException;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Priority Inheritance with Backtracking (Okumura et al., 2019), which plans only one time step ahead and so
+ * copes with numbers of agents at which searching further ahead stops making progress.
+ *
+ * Each time step the agents decide their next node in order of priority. An agent takes the free neighbouring
+ * node, or its own node, closest to its goal. If another agent is on that node and has not decided yet, the
+ * other agent inherits the priority of the first and must decide next, and must move out of the way; if it can
+ * not, the first agent backtracks and tries its next candidate. An agent's priority grows every time step it is
+ * away from its goal, so every agent eventually gets to move towards its goal. A time step costs time roughly
+ * linear in the number of agents, whatever their density.
+ *
+ * Runs are measured and reported in the same way as {@link Algorithm.Bmaa.Bmaa}, so results of the two can be
+ * compared directly.
+ */
+public class Pibt {
+
+    private Graph graph;
+    private List<PibtAgent> agents;
+
+    private Time time;
+
+    /**
+     * Which agent occupies each node during this run. The graph itself is never modified, so it can be shared.
+     */
+    private Occupancy occupancy;
+
+    /**
+     * The agent which has decided to be at each node after the current time step, by node index.
+     */
+    private final int[] reserved;
+
+    private HeuristicProvider heuristic;
+
+    /**
+     * The time limit imposed on runtime of the algorithm, in milliSeconds
+     */
+    private long timeLimit;
+
+    public Pibt(ProblemSet problemSet) {
+        this(problemSet.getGraph(), problemSet.getS(), problemSet.getT());
+    }
+
+    public Pibt(Graph graph, List<Node> s, List<Node> t) {
+        this(graph, s, t, new Time());
+    }
+
+    /**
+     * Create an instance of the algorithm that measures its run time, and so its time limits, with the given
+     * time keeper.
+     * @param time the time keeper of the run
+     */
+    public Pibt(Graph graph, List<Node> s, List<Node> t, Time time) {
+        this.time = time;
+        this.graph = graph;
+        this.occupancy = new Occupancy(graph);
+        this.reserved = new int[graph.indexBound()];
+        Arrays.fill(reserved, Occupancy.EMPTY);
+        createAgents(graph, s, t);
+
+        // Agents compare the distances of their neighbours to their goal every step, so a distance field is kept
+        // for every agent's goal where memory allows
+        long fieldBytes = 4L * graph.indexBound();
+        long maxBytes = Math.max(GoalDistanceCache.DEFAULT_MAX_BYTES,
+                Math.min(fieldBytes * s.size(), Runtime.getRuntime().maxMemory() / 4));
+        this.heuristic = new GoalDistanceCache(graph, maxBytes, 0);
+    }
+
+    /**
+     * Set the distances agents rank their candidate nodes by. Must be set before running.
+     * @param heuristic the heuristic provider, a {@link GoalDistanceCache} for the graph by default
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public Result runWithTimeLimit(Duration timeLimit) {
+        this.timeLimit = timeLimit.toMillis();
+
+        while (!allAgentsAtGoals() && underTimeLimit()) {
+            timeStep();
+        }
+        return collectResults();
+    }
+
+    /**
+     * Run the algorithm, but at given stop times pause the execution and gather current statistics at that time.
+     * @param stopTimes integer values which indicate the time in milli seconds at which to pause execution
+     *                  gather statistics about the progress of the run.
+     * @return the results of the algorithm at each stop time
+     */
+    public List<Result> runWithMultipleTimeLimits(List<Integer> stopTimes) {
+        List<Result> results = new ArrayList<>();
+
+        for (int stopTime : stopTimes) {
+            this.timeLimit = stopTime;
+            while (!allAgentsAtGoals() && underTimeLimit()) {
+                timeStep();
+            }
+            try {
+                results.add(collectResults());
+            } catch (NoAgentAtGoalException e) {
+                e.printStackTrace();
+                System.out.println("Skipping " + stopTime + "ms timelimit");
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the average time taken by a time step so far, in milliseconds.
+     */
+    public double averageTimeStepMillis() {
+        return time.getTimeSteps() == 0 ? 0 : (double) time.milliSecondsElapsed() / time.getTimeSteps();
+    }
+
+    private Result collectResults() {
+
+        // Completion Rate
+        int agentsAtGoal = 0;
+        for (PibtAgent agent : agents) {
+            if (agent.atGoalBeforeTimeLimit(timeLimit)) {
+                agentsAtGoal += 1;
+            }
+        }
+
+        double completionRate = (double) agentsAtGoal / (double) agents.size();
+
+        // Completion Time (Seconds)
+        double averageCompletionTimeSeconds =
+                agents.stream()
+                        .mapToDouble(agent -> {
+                            Long completionTimeSeconds = agent.getCompletionTimeSeconds(timeLimit);
+                            if (completionTimeSeconds == null) {
+                                return timeLimit;
+                            }
+                            else {
+                                return completionTimeSeconds;
+                            }
+                        })
+                        .average()
+                        .orElseThrow(RuntimeException::new);
+
+        // Completion Time (Time steps)
+        int max =
+                agents.stream()
+                        .filter(agent -> agent.getCompletionTimeSteps(timeLimit) != null)
+                        .mapToInt(agent -> agent.getCompletionTimeSteps(timeLimit))
+                        .max()
+                        .orElseThrow(() -> {
+                            System.out.println("Error: Completion rate: " + completionRate);
+                            return new NoAgentAtGoalException("For " + this.agents.size() + "agents with time limit of " + timeLimit);
+                        });
+
+        double averageCompletionTimeSteps =
+                agents.stream()
+                        .mapToInt(agent -> {
+                            if (agent.getCompletionTimeSteps(timeLimit) == null) {
+                                return max;
+                            }
+                            else {
+                                return agent.getCompletionTimeSteps(timeLimit);
+                            }
+                        })
+                        .average()
+                        .orElseThrow(RuntimeException::new);
+
+        // Travel distances
+        double averageTravelDistance =
+                agents.stream()
+                        .mapToDouble(agent -> agent.getTravelDistance(timeLimit))
+                        .average()
+                        .orElseThrow(RuntimeException::new);
+
+        return new Result(
+                (int) timeLimit,
+                agents.size(),
+                completionRate,
+                averageCompletionTimeSeconds,
+                averageCompletionTimeSteps,
+                averageTravelDistance);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Run a single time step of the algorithm: every agent decides its next node, and then all agents move at once.
+     * The step is timed by the algorithm's stopwatch as it would be during a run.
+     */
+    public void timeStep() {
+        time.startStopWatch();
+        npcController();
+        time.stopStopWatch();
+    }
+
+    private void npcController() {
+        for (PibtAgent agent : agents) {
+            agent.updatePriority();
+        }
+        List<PibtAgent> order = new ArrayList<>(agents);
+        order.sort(Comparator.comparingDouble(PibtAgent::getPriority).reversed());
+
+        for (PibtAgent agent : order) {
+            if (agent.getNext() == null) {
+                decide(agent, null);
+            }
+        }
+
+        for (PibtAgent agent : agents) {
+            reserved[agent.getNext().getIndex()] = Occupancy.EMPTY;
+            agent.leave();
+        }
+        for (PibtAgent agent : agents) {
+            agent.enterNext();
+        }
+
+        time.incrementTimeStep();
+    }
+
+    /**
+     * Decide the next node of an agent, making any undecided agent on that node move out of the way.
+     * @param agent the agent to decide for
+     * @param parent the agent whose priority it inherited, or null
+     * @return true if the agent could move to a node which is not the parent's, false if it must stay
+     */
+    private boolean decide(PibtAgent agent, PibtAgent parent) {
+        Node current = agent.getCurrentNode();
+        Node[] candidates = candidates(agent);
+
+        for (Node candidate : candidates) {
+            if (reserved[candidate.getIndex()] != Occupancy.EMPTY) {
+                continue;
+            }
+            if (parent != null && candidate == parent.getCurrentNode()) {
+                continue;
+            }
+
+            reserve(agent, candidate);
+            PibtAgent occupier = (PibtAgent) occupancy.getAgent(candidate);
+            if (occupier != null && occupier != agent && occupier.getNext() == null) {
+                if (!decide(occupier, agent)) {
+                    continue;
+                }
+            }
+            return true;
+        }
+
+        reserve(agent, current);
+        return false;
+    }
+
+    /**
+     * The neighbours of an agent's node and the node itself, closest to the agent's goal first. Ties go to free
+     * nodes and then to lower indexes, to keep runs deterministic.
+     */
+    private Node[] candidates(PibtAgent agent) {
+        Set<Node> neighbours = graph.getNeigbours(agent.getCurrentNode());
+        Node[] candidates = new Node[neighbours.size() + 1];
+        double[] distances = new double[candidates.length];
+
+        int size = 0;
+        for (Node neighbour : neighbours) {
+            size = insert(candidates, distances, size, neighbour, heuristic.estimate(neighbour, agent.getGoal()));
+        }
+        Node current = agent.getCurrentNode();
+        insert(candidates, distances, size, current, heuristic.estimate(current, agent.getGoal()));
+        return candidates;
+    }
+
+    private int insert(Node[] candidates, double[] distances, int size, Node node, double distance) {
+        int i = size;
+        while (i > 0 && before(node, distance, candidates[i - 1], distances[i - 1])) {
+            candidates[i] = candidates[i - 1];
+            distances[i] = distances[i - 1];
+            i -= 1;
+        }
+        candidates[i] = node;
+        distances[i] = distance;
+        return size + 1;
+    }
+
+    private boolean before(Node a, double distanceA, Node b, double distanceB) {
+        if (distanceA != distanceB) {
+            return distanceA < distanceB;
+        }
+        boolean occupiedA = occupancy.isOccupied(a);
+        if (occupiedA != occupancy.isOccupied(b)) {
+            return !occupiedA;
+        }
+        return a.getIndex() < b.getIndex();
+    }
+
+    private void reserve(PibtAgent agent, Node node) {
+        if (agent.getNext() != null && reserved[agent.getNext().getIndex()] == agent.getId()) {
+            reserved[agent.getNext().getIndex()] = Occupancy.EMPTY;
+        }
+        agent.setNext(node);
+        reserved[node.getIndex()] = agent.getId();
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private void createAgents(Graph graph, List<Node> s, List<Node> t) {
+        agents = new ArrayList<>();
+        for (int i=0; i<s.size(); i++) {
+            // Unique fractions below 1 so ties in priority are always broken the same way
+            double tieBreak = (double) i / s.size();
+            agents.add(new PibtAgent(graph, occupancy, s.get(i), t.get(i), tieBreak, time));
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Returns true if all agents are at their goals, false otherwise.
+     * @return a boolean indicating if all agents are at their goals
+     */
+    private boolean allAgentsAtGoals() {
+        return agents.stream()
+                .allMatch(agent -> agent.atGoalBeforeTimeLimit(timeLimit));
+    }
+
+    /**
+     * Return true if the current execution time indicated by the stopwatch is under the time limit.
+     * @return a boolean indicating if execution time is under the time limit
+     */
+    private boolean underTimeLimit() {
+        return time.milliSecondsElapsed() < timeLimit;
+    }
+}
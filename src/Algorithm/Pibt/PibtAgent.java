@@ -0,0 +1,218 @@
+package Algorithm.Pibt;
+
+import Algorithm.Agent;
+import Algorithm.Occupancy;
+import Algorithm.Time;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+public class PibtAgent extends Agent {
+
+    private Graph graph;
+    private Occupancy occupancy;
+
+    private Node previousNode;
+    private Long lastMoveTime;
+
+    private Integer completionTimeSteps;
+    private Long completionTimeSeconds;
+    private Double travelDistance;
+
+    private Time time;
+
+    /**
+     * The priority of the agent, which grows by one every time step the agent is away from its goal. The
+     * fractional part is unique to the agent and breaks ties.
+     */
+    private double priority;
+    private final double tieBreak;
+
+    /**
+     * The node the agent will be at after the current time step, or null while it is undecided.
+     */
+    private Node next;
+
+    public PibtAgent(Graph graph, Occupancy occupancy, Node start, Node goal, double tieBreak, Time time) {
+        this.graph = graph;
+        this.occupancy = occupancy;
+        occupancy.register(this);
+        setStart(start);
+        setCurrentNode(start);
+        setGoal(goal);
+        // Agents planning one step at a time must see every other agent, including those yet to move
+        occupancy.enter(start, this);
+
+        this.time = time;
+
+        this.tieBreak = tieBreak;
+        this.priority = tieBreak;
+
+        // Completion Time (Seconds) edge case: if the agent starts on its goal
+        // we must set its completion time (seconds) to = 0
+        // Completion Time (Time Steps) has the same edge case, so we must
+        // set its completion time (time steps) to = 0 also
+        if (getStart() == getGoal()) {
+            this.completionTimeSeconds = 0L;
+            this.completionTimeSteps = 0;
+        }
+
+        this.travelDistance = 0.00;
+
+        this.lastMoveTime = 0L;
+    }
+
+    // -----------------------------------
+
+    public double getPriority() {
+        return priority;
+    }
+
+    /**
+     * Raise the agent's priority if it is away from its goal, or drop it back to its tie break if it has arrived.
+     */
+    public void updatePriority() {
+        if (atGoal()) {
+            priority = tieBreak;
+        }
+        else {
+            priority += 1;
+        }
+    }
+
+    public Node getNext() {
+        return next;
+    }
+
+    public void setNext(Node next) {
+        this.next = next;
+    }
+
+    /**
+     * Move to the node decided for this time step. The agent leaves its node before any agent enters one, see
+     * {@link #enterNext()}, so agents can follow each other and rotate around cycles in one step.
+     */
+    public void leave() {
+        occupancy.leave(getCurrentNode());
+    }
+
+    /**
+     * Enter the node decided for this time step, after every moving agent has left its node.
+     */
+    public void enterNext() {
+        if (next != getCurrentNode()) {
+            updateMetrics(next);
+        }
+        setCurrentNode(next);
+        occupancy.enter(next, this);
+        next = null;
+    }
+
+    /**
+     * Move to any neighbouring node of the agents current node which is free. Agents planning with PIBT step aside
+     * as part of their plans, so this is only needed by controllers which push agents off their goals.
+     *
+     * @return the node it has been pushed to, or null if every neighbour is occupied
+     */
+    public Node push() {
+        for (Node node : graph.getNeigbours(getCurrentNode())) {
+            if (!occupancy.isOccupied(node)) {
+                updateMetrics(node);
+                occupancy.leave(getCurrentNode());
+                setCurrentNode(node);
+                occupancy.enter(node, this);
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // ----------------------------------------------------------------------
+
+    /**
+     * Update the part of the agents state used for recording performance measures.
+     *
+     * @param nextNode the node the agent will move to next
+     */
+    private void updateMetrics(Node nextNode) {
+        // Metrics for completion rate
+        this.previousNode = getCurrentNode();
+        this.lastMoveTime = this.time.milliSecondsElapsed();
+
+        // Completion Time (Seconds) and Completion Time (Time-Steps)
+        if (nextNode == getGoal()) {
+            this.completionTimeSeconds = this.time.milliSecondsElapsed();
+            this.completionTimeSteps = this.time.getTimeSteps();
+        }
+
+        // Travel distance
+        this.travelDistance += graph.getEdge(getCurrentNode(), nextNode).getWeight();
+    }
+
+    /**
+     * Determine if the agent was at its goal before a given time limit.
+     * @param timeLimit the time after which we should consider a move to be invalid
+     * @return a boolean indicating if the agent was at its goal
+     */
+    public boolean atGoalBeforeTimeLimit(long timeLimit) {
+        // Special case where the agent never moved
+        if (previousNode == null) {
+            return getCurrentNode() == getGoal();
+        }
+        // Otherwise compare the node against the agents correct position according to the time limit
+        if (lastMoveTime < timeLimit) {
+            return getCurrentNode() == getGoal();
+        }
+        else {
+            return this.previousNode == getGoal();
+        }
+    }
+
+    /**
+     * Get the completion time (seconds) for the agent, or null if the agent is not at its goal. See
+     * {@link Algorithm.Bmaa.BmaaAgent#getCompletionTimeSeconds(long)}.
+     *
+     * @param timeLimit the time after which moves are considered invalid
+     * @return an Long value which is the agents completion time (seconds)
+     */
+    public Long getCompletionTimeSeconds(long timeLimit) {
+        if (lastMoveTime < timeLimit) {
+            return getCurrentNode() == getGoal() ? this.completionTimeSeconds : null;
+        }
+        else {
+            return this.previousNode == getGoal() ? this.completionTimeSeconds : null;
+        }
+    }
+
+    /**
+     * Get the completion time (time steps) for the agent, or null if the agent is not at its goal. See
+     * {@link Algorithm.Bmaa.BmaaAgent#getCompletionTimeSteps(long)}.
+     *
+     * @param timeLimit the time after which moves are considered invalid
+     * @return an Integer value which is the agents completion time (time steps)
+     */
+    public Integer getCompletionTimeSteps(long timeLimit) {
+        if (lastMoveTime < timeLimit) {
+            return getCurrentNode() == getGoal() ? this.completionTimeSteps + 1 : null;
+        }
+        else {
+            return this.previousNode == getGoal() ? this.completionTimeSteps + 1 : null;
+        }
+    }
+
+    /**
+     * Return the travel distance of the agent, the total sum of all edge costs which were traversed by the agent
+     * before the time limit.
+     *
+     * @param timeLimit the time after which agent moves are considered invalid
+     * @return a double which is the agents travel distance
+     */
+    public double getTravelDistance(long timeLimit) {
+        if (lastMoveTime < timeLimit) {
+            return this.travelDistance;
+        }
+        else {
+            double invalidMoveCost = graph.getEdge(getCurrentNode(), this.previousNode).getWeight();
+            return travelDistance - invalidMoveCost;
+        }
+    }
+}
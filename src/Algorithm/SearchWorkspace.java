@@ -0,0 +1,188 @@
+package Algorithm;
+
+import DataStructures.BucketPriorityQueue;
+import DataStructures.IntKeyPriorityQueue;
+import DataStructures.IntPriorityQueue;
+import DataStructures.graph.Graph;
+
+import java.util.Arrays;
+
+/**
+ * Scratch space for an A* style search over the node indexes of a graph.
+ *
+ * The open list, closed set, g-costs and parent pointers are kept in primitive arrays indexed by
+ * {@link DataStructures.graph.Node#getIndex()}. Entries are tagged with a generation stamp, so {@link #reset()}
+ * is O(1) and a workspace can be reused for every search without allocating. Each thread owns one workspace,
+ * obtained through {@link #forGraph(Graph)}, so agents searching on the same thread share it.
+ *
+ * Only one search may use a workspace at a time; its contents are valid until the next call to reset.
+ */
+public class SearchWorkspace {
+
+    public static final int NO_PARENT = -1;
+
+    private static final ThreadLocal<SearchWorkspace> workspaces =
+            ThreadLocal.withInitial(() -> new SearchWorkspace(0));
+
+    private final IntPriorityQueue open;
+    private final IntKeyPriorityQueue integerOpen;
+    private BucketPriorityQueue bucketOpen;
+
+    private double[] gCosts;
+    private int[] integerGCosts;
+    private int[] parents;
+    private int[] seen;
+
+    private int[] closed;
+    private int[] closedList;
+    private int closedCount = 0;
+
+    private int generation = 1;
+
+    public SearchWorkspace(int capacity) {
+        this.open = new IntPriorityQueue(capacity);
+        this.integerOpen = new IntKeyPriorityQueue(capacity);
+        this.gCosts = new double[capacity];
+        this.integerGCosts = new int[capacity];
+        this.parents = new int[capacity];
+        this.seen = new int[capacity];
+        this.closed = new int[capacity];
+        this.closedList = new int[capacity];
+    }
+
+    /**
+     * Returns the workspace of the calling thread, large enough to search the given graph.
+     * @param graph the graph which will be searched
+     * @return a workspace owned by the calling thread
+     */
+    public static SearchWorkspace forGraph(Graph graph) {
+        SearchWorkspace workspace = workspaces.get();
+        workspace.ensureCapacity(graph.indexBound());
+        return workspace;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > gCosts.length) {
+            open.ensureCapacity(capacity);
+            integerOpen.ensureCapacity(capacity);
+            if (bucketOpen != null) {
+                bucketOpen.ensureCapacity(capacity);
+            }
+            gCosts = Arrays.copyOf(gCosts, capacity);
+            integerGCosts = Arrays.copyOf(integerGCosts, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            closed = Arrays.copyOf(closed, capacity);
+            closedList = Arrays.copyOf(closedList, capacity);
+        }
+    }
+
+    /**
+     * Forget the previous search so the workspace can be used for a new one.
+     */
+    public void reset() {
+        open.clear();
+        integerOpen.clear();
+        if (bucketOpen != null) {
+            bucketOpen.clear();
+        }
+        closedCount = 0;
+        generation += 1;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    public IntPriorityQueue getOpen() {
+        return open;
+    }
+
+    /**
+     * Returns an open list which sorts nodes into buckets of f-costs instead of keeping a heap, see
+     * {@link BucketPriorityQueue}. It is created the first time it is asked for, and is cleared with the rest of
+     * the workspace. Either open list may be used by a search, but only one.
+     */
+    public BucketPriorityQueue getBucketOpen() {
+        if (bucketOpen == null) {
+            bucketOpen = new BucketPriorityQueue(gCosts.length);
+        }
+        return bucketOpen;
+    }
+
+    /**
+     * Returns the open list for searches in {@link DataStructures.graph.IntegerCosts}, which record their g-costs
+     * with {@link #recordInteger(int, int, int)}.
+     */
+    public IntKeyPriorityQueue getIntegerOpen() {
+        return integerOpen;
+    }
+
+    /**
+     * Returns whether a g-cost has been recorded for the node in the current search.
+     */
+    public boolean hasGCost(int node) {
+        return seen[node] == generation;
+    }
+
+    public double getGCost(int node) {
+        return gCosts[node];
+    }
+
+    /**
+     * Record the g-cost and parent of a node for the current search.
+     * @param node the node index
+     * @param gCost the cost of the best known path to the node
+     * @param parent the index of the previous node on that path, or {@link #NO_PARENT}
+     */
+    public void record(int node, double gCost, int parent) {
+        seen[node] = generation;
+        gCosts[node] = gCost;
+        parents[node] = parent;
+    }
+
+    public int getIntegerGCost(int node) {
+        return integerGCosts[node];
+    }
+
+    /**
+     * Record the integer g-cost and parent of a node for the current search, see {@link #record(int, double, int)}.
+     */
+    public void recordInteger(int node, int gCost, int parent) {
+        seen[node] = generation;
+        integerGCosts[node] = gCost;
+        parents[node] = parent;
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    public boolean isClosed(int node) {
+        return closed[node] == generation;
+    }
+
+    public void close(int node) {
+        closed[node] = generation;
+        closedList[closedCount++] = node;
+    }
+
+    /**
+     * Returns the number of nodes closed in the current search.
+     */
+    public int closedCount() {
+        return closedCount;
+    }
+
+    /**
+     * Returns the i'th node closed in the current search.
+     */
+    public int closedNode(int i) {
+        return closedList[i];
+    }
+}
@@ -0,0 +1,42 @@
+package Algorithm;
+
+/**
+ * A deterministic clock which only advances when the simulation takes a time step.
+ *
+ * Every time step counts as a fixed duration no matter how long it actually took, so a time limit becomes a limit
+ * on the number of time steps. Runs timed this way give the same result on every machine and under any load.
+ */
+public class StepClock implements Clock {
+
+    /**
+     * The duration a time step counts as unless told otherwise, one millisecond.
+     */
+    public static final long DEFAULT_STEP_NANOS = 1_000_000L;
+
+    private final long stepNanos;
+    private long steps = 0;
+
+    public StepClock() {
+        this(DEFAULT_STEP_NANOS);
+    }
+
+    /**
+     * @param stepNanos the duration in nanoseconds that each time step counts as
+     */
+    public StepClock(long stepNanos) {
+        if (stepNanos <= 0) {
+            throw new IllegalArgumentException("Step duration must be positive but was " + stepNanos);
+        }
+        this.stepNanos = stepNanos;
+    }
+
+    @Override
+    public long read() {
+        return steps * stepNanos;
+    }
+
+    @Override
+    public void timeStep() {
+        steps += 1;
+    }
+}
@@ -0,0 +1,30 @@
+package Algorithm;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the CPU time of the thread that reads it.
+ *
+ * Runs timed this way are not slowed down by other runs sharing the machine, so concurrent experiments get the
+ * same budget as serial ones. The clock must be read from the thread running the algorithm, and work done on other
+ * threads, such as parallel search workers, is not counted.
+ */
+public class ThreadCpuClock implements Clock {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    public ThreadCpuClock() {
+        if (!threads.isCurrentThreadCpuTimeSupported()) {
+            throw new UnsupportedOperationException("Thread CPU time is not supported by this JVM");
+        }
+        if (!threads.isThreadCpuTimeEnabled()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    @Override
+    public long read() {
+        return threads.getCurrentThreadCpuTime();
+    }
+}
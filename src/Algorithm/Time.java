@@ -1,18 +1,62 @@
 package Algorithm;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
 
 import java.util.concurrent.TimeUnit;
 
 public class Time {
 
-    private Stopwatch stopwatch = Stopwatch.createUnstarted();
+    private final Clock clock;
+    private Stopwatch stopwatch;
 
     private int time = 0;
 
+    /**
+     * Create a time keeper which measures wall clock time.
+     */
+    public Time() {
+        this(new WallClock());
+    }
+
+    /**
+     * Create a time keeper whose stopwatch reads the given clock.
+     * @param clock the source of readings for the stopwatch
+     */
+    public Time(Clock clock) {
+        this.clock = clock;
+        this.stopwatch = Stopwatch.createUnstarted(new Ticker() {
+            @Override
+            public long read() {
+                return clock.read();
+            }
+        });
+    }
+
+    /**
+     * Create a time keeper which measures the CPU time of the thread that reads it.
+     * @see ThreadCpuClock
+     */
+    public static Time threadCpuTime() {
+        return new Time(new ThreadCpuClock());
+    }
+
+    /**
+     * Create a time keeper which counts every time step as the given number of milliseconds.
+     * @see StepClock
+     */
+    public static Time stepCount(long millisPerStep) {
+        return new Time(new StepClock(TimeUnit.MILLISECONDS.toNanos(millisPerStep)));
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
     public void incrementTimeStep() {
         this.time += 1;
-    };
+        clock.timeStep();
+    }
 
     public int getTimeSteps() {
         return this.time;
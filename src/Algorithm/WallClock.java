@@ -0,0 +1,12 @@
+package Algorithm;
+
+/**
+ * Measures real (wall clock) time. Readings are affected by anything else running on the machine.
+ */
+public class WallClock implements Clock {
+
+    @Override
+    public long read() {
+        return System.nanoTime();
+    }
+}
@@ -4,7 +4,7 @@ import Algorithm.Waypoint.WaypointBmaa;
 import Benchmark.Benchmark;
 import Benchmark.Result;
 import Benchmark.ProblemSet;
-import Benchmark.ProblemMap;
+import Benchmark.MapCache;
 import DataStructures.graph.Graph;
 
 import java.nio.file.Files;
@@ -56,7 +56,7 @@ public class Experiment2 {
 
         for (int i = 0; i < 10; i++) {
 
-            Graph graph = ProblemMap.graphFromMap(mapPath);
+            Graph graph = MapCache.get(mapPath);
             ProblemSet problemSet = ProblemSet.randomProblemSet(graph, agentCount);
 
             List<Result> results = new WaypointBmaa(graph,
@@ -2,9 +2,10 @@ package Algorithm.Waypoint.Experiments;
 
 import Algorithm.Waypoint.WaypointBmaa;
 import Algorithm.Waypoint.WaypointAgent;
+import Algorithm.Occupancy;
 import Algorithm.Time;
 import Benchmark.Benchmark;
-import Benchmark.ProblemMap;
+import Benchmark.MapCache;
 import Benchmark.ProblemSet;
 import com.google.common.base.Stopwatch;
 import DataStructures.graph.Graph;
@@ -48,7 +49,7 @@ public class FullPathComputationTime {
                 List<Duration> decompTimes = new ArrayList<>();
 
                 for (int i = 0; i < 10; i++) {
-                    Graph graph = ProblemMap.graphFromMap(map);
+                    Graph graph = MapCache.get(map);
                     ProblemSet problemSet = ProblemSet.randomProblemSet(graph, agentCount);
                     List<WaypointAgent> agents = createAgents(graph, problemSet.getS(), problemSet.getT());
 
@@ -96,6 +97,7 @@ public class FullPathComputationTime {
      */
     private static List<WaypointAgent> createAgents(Graph graph, List<Node> s, List<Node> t) {
         Time time = new Time();
+        Occupancy occupancy = new Occupancy(graph);
 
         int expansions = WaypointBmaa.DEFAULT_EXPANSIONS;
         double vision = WaypointBmaa.DEFAULT_VISION;
@@ -103,7 +105,7 @@ public class FullPathComputationTime {
 
         List<WaypointAgent> agents = new ArrayList<>();
         for (int i=0; i<s.size(); i++) {
-            agents.add(new WaypointAgent(graph, s.get(i), t.get(i), expansions, vision, moves, time, 10*Math.sqrt(2)));
+            agents.add(new WaypointAgent(graph, occupancy, s.get(i), t.get(i), expansions, vision, moves, time, 10*Math.sqrt(2)));
         }
         return agents;
     }
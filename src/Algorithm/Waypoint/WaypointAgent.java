@@ -1,9 +1,20 @@
 package Algorithm.Waypoint;
 
 import Algorithm.Agent;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Heuristics.LearnedHeuristics;
+import Algorithm.Heuristics.OctileHeuristic;
+import Algorithm.Pathfinding.AStarPathEngine;
+import Algorithm.Pathfinding.DStarLite;
+import Algorithm.Pathfinding.HierarchicalPathEngine;
+import Algorithm.Pathfinding.PathEngine;
+import Algorithm.Occupancy;
+import Algorithm.SearchWorkspace;
 import Algorithm.Time;
-import DataStructures.PriorityQueue;
+import DataStructures.IntKeyPriorityQueue;
+import DataStructures.OpenList;
 import DataStructures.graph.Graph;
+import DataStructures.graph.NeighbourCursor;
 import DataStructures.graph.Node;
 
 import java.util.*;
@@ -11,6 +22,8 @@ import java.util.*;
 public class WaypointAgent extends Agent {
 
     private Graph graph;
+    private NeighbourCursor neighbours;
+    private Occupancy occupancy;
 
     private Node previousNode;
     private Long lastMoveTime;
@@ -36,11 +49,23 @@ public class WaypointAgent extends Agent {
     private int waypointSpacing;
     private double closeness;
 
-    private HashMap<Node, Double> heuristics = new HashMap<>();
+    private LearnedHeuristics heuristics = new LearnedHeuristics();
+    private HeuristicProvider heuristic = OctileHeuristic.INSTANCE;
+    private PathEngine pathEngine;
+    private boolean abstractWaypoints = false;
+    private boolean integerCosts = false;
+    private boolean bucketQueue = false;
 
-    public WaypointAgent(Graph graph, Node start, Node goal,
+    private boolean incremental = false;
+    private DStarLite planner;
+    private Set<Node> sensedBlocked = new HashSet<>();
+
+    public WaypointAgent(Graph graph, Occupancy occupancy, Node start, Node goal,
                          int expansions, double vision, int moves, Time time, double closeness) {
         this.graph = graph;
+        this.neighbours = graph.neighbourCursor();
+        this.occupancy = occupancy;
+        occupancy.register(this);
         setStart(start);
         setCurrentNode(start);
         setGoal(goal);
@@ -77,160 +102,374 @@ public class WaypointAgent extends Agent {
     // -----------------------------------
 
     public void searchPhase() {
+        if (incremental) {
+            incrementalSearchPhase();
+            return;
+        }
         if (!nextNodeIsDefined() || time.getTimeSteps() > limit) {
-            SearchState state = search();
-            PriorityQueue<Node> open = state.getOpen();
-            Map<Node, Node> closed = state.getClosed();
-            Map<Node, Double> gCosts = state.getGCosts();
-
-            if (!open.isEmpty()) {
-                Node n = open.get();
-                double f = gCosts.get(n) + h(n);
-                updateHeuristicValues(closed,gCosts, f);
-                limit = time.getTimeSteps() + moves;
+            heuristics.beginSearch();
+            if (integerCosts) {
+                SearchWorkspace workspace = searchInteger();
+                IntKeyPriorityQueue open = workspace.getIntegerOpen();
+
+                if (!open.isEmpty()) {
+                    int n = open.get();
+                    long f = (long) workspace.getIntegerGCost(n) + hInteger(graph.getNodeByIndex(n));
+                    updateHeuristicValuesInteger(workspace, f);
+                    limit = time.getTimeSteps() + moves;
+                }
+            }
+            else {
+                SearchWorkspace workspace = search();
+                OpenList open = openList(workspace);
+
+                if (!open.isEmpty()) {
+                    int n = open.get();
+                    double f = workspace.getGCost(n) + h(graph.getNodeByIndex(n));
+                    updateHeuristicValues(workspace, f);
+                    limit = time.getTimeSteps() + moves;
+                }
             }
+            heuristics.endSearch();
         }
     }
 
-    private SearchState search() {
+    /**
+     * Run a bounded A* search from the agents current node towards its current waypoint, using the calling
+     * thread's search workspace. When the search comes close enough to a waypoint it continues from there
+     * towards the next one.
+     * @return the workspace holding the open list, closed set and g-costs of the search
+     */
+    private SearchWorkspace search() {
         List<Node> paths = new ArrayList<>();
         int exp = 0;
-        PriorityQueue<Node> open = new PriorityQueue<>();
-        Map<Node, Node> closed = new HashMap<>();
-        Map<Node, Double> gCosts = new HashMap<>();
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        workspace.reset();
+        OpenList open = openList(workspace);
 
-        open.put(getCurrentNode(), 0);
-        gCosts.put(getCurrentNode(), 0.00);
+        int start = getCurrentNode().getIndex();
+        open.put(start, 0);
+        workspace.record(start, 0.00, SearchWorkspace.NO_PARENT);
 
-        // TODO collapse parent into open data structure?
-        Map<Node, Node> parents = new HashMap<>();
-        parents.put(getCurrentNode(), null);
-
-        Node n = null;
+        int index = start;
         while (!open.isEmpty()) {
-            n = open.get();
-            closed.put(n, parents.get(n));
+            index = open.get();
+            Node n = graph.getNodeByIndex(index);
+            workspace.close(index);
 
             if (n == getGoal() || exp > expansions) {
-                List<Node> p = constructPath(closed, n);
+                List<Node> p = constructPath(workspace, index);
                 paths.addAll(p);
 
                 this.pathPrefix = paths;
                 this.currentPathIndex = 0;
-                return new SearchState(open, closed, gCosts);
+                return workspace;
             }
 
             if (currentWaypoint() != getGoal()) {
                 if (n.octileDistance(currentWaypoint()) <= closeness) {
-                    List<Node> p = constructPath(closed, n);
+                    List<Node> p = constructPath(workspace, index);
                     paths.addAll(p);
                     nextWaypoint();
-                    open = new PriorityQueue<>();
-                    closed = new HashMap<>();
-                    gCosts = new HashMap<>();
-                    parents = new HashMap<>();
-                    this.heuristics = new HashMap<>();
+                    workspace.reset();
+                    this.heuristics.clear();
 
                     // Chosee your next starting position for the next sub path to the next waypoint, and continue the search from there
-                    for (Node neighbour : graph.getNeigbours(n)) {
-                        double gCost = graph.getEdge(n, neighbour).getWeight();
-                        open.put(neighbour, h(neighbour) + gCost);
-                        gCosts.put(neighbour, gCost);
-                        parents.put(neighbour, null);
+                    neighbours.reset(index);
+                    while (neighbours.next()) {
+                        int m = neighbours.index();
+                        double gCost = neighbours.cost();
+                        open.put(m, h(graph.getNodeByIndex(m)) + gCost);
+                        workspace.record(m, gCost, SearchWorkspace.NO_PARENT);
                     }
                     continue;
                 }
             }
 
-            for (Node neighbour : graph.getNeigbours(n)) {
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                Node neighbour = graph.getNodeByIndex(m);
                 double distance = n.euclideanDistance(neighbour);
 
-                if ((neighbour.isOccupied() && (neighbour != getGoal())) && distance < vision) {
+                if ((occupancy.isOccupied(neighbour) && (neighbour != getGoal())) && distance < vision) {
                     continue;
                 }
 
-                if (!closed.containsKey(neighbour)) {
-                    if (open.contains(neighbour)) {
-                        double gCostOnRecord = gCosts.get(neighbour);
-                        double newGCost = gCosts.get(n) + graph.getEdge(n, neighbour).getWeight();
+                if (!workspace.isClosed(m)) {
+                    double g = workspace.getGCost(index) + neighbours.cost();
 
-                        if (newGCost < gCostOnRecord) {
-                            open.update(neighbour, newGCost + h(neighbour));
-                            parents.replace(neighbour, n);
-                            gCosts.replace(neighbour, newGCost);
+                    if (open.contains(m)) {
+                        if (g < workspace.getGCost(m)) {
+                            open.update(m, g + h(neighbour));
+                            workspace.record(m, g, index);
                         }
                     }
                     else {
-                        double g = gCosts.get(n) + graph.getEdge(n, neighbour).getWeight();
+                        open.put(m, g + h(neighbour));
+                        workspace.record(m, g, index);
+                    }
+                }
+            }
+            exp += 1;
+        }
+        this.pathPrefix = constructPath(workspace, index);
+        this.currentPathIndex = 0;
+        return workspace;
+    }
+
+    /**
+     * The bounded search of {@link #search()} with g-costs, heuristic values and open list keys scaled to integers
+     * with {@link DataStructures.graph.IntegerCosts}, so f-costs are compared exactly.
+     * @return the workspace holding the integer open list, closed set and integer g-costs of the search
+     */
+    private SearchWorkspace searchInteger() {
+        List<Node> paths = new ArrayList<>();
+        int exp = 0;
+        SearchWorkspace workspace = SearchWorkspace.forGraph(graph);
+        workspace.reset();
+        IntKeyPriorityQueue open = workspace.getIntegerOpen();
+
+        int start = getCurrentNode().getIndex();
+        open.put(start, 0);
+        workspace.recordInteger(start, 0, SearchWorkspace.NO_PARENT);
+
+        int index = start;
+        while (!open.isEmpty()) {
+            index = open.get();
+            Node n = graph.getNodeByIndex(index);
+            workspace.close(index);
+
+            if (n == getGoal() || exp > expansions) {
+                paths.addAll(constructPath(workspace, index));
+
+                this.pathPrefix = paths;
+                this.currentPathIndex = 0;
+                return workspace;
+            }
 
-                        open.put(neighbour, g + h(neighbour));
-                        parents.put(neighbour, n);
-                        gCosts.put(neighbour, g);
+            if (currentWaypoint() != getGoal() && n.octileDistance(currentWaypoint()) <= closeness) {
+                paths.addAll(constructPath(workspace, index));
+                nextWaypoint();
+                workspace.reset();
+                this.heuristics.clear();
+
+                neighbours.reset(index);
+                while (neighbours.next()) {
+                    int m = neighbours.index();
+                    int gCost = neighbours.integerCost();
+                    open.put(m, fInteger(gCost, graph.getNodeByIndex(m)));
+                    workspace.recordInteger(m, gCost, SearchWorkspace.NO_PARENT);
+                }
+                continue;
+            }
+
+            neighbours.reset(index);
+            while (neighbours.next()) {
+                int m = neighbours.index();
+                Node neighbour = graph.getNodeByIndex(m);
+                double distance = n.euclideanDistance(neighbour);
+
+                if ((occupancy.isOccupied(neighbour) && (neighbour != getGoal())) && distance < vision) {
+                    continue;
+                }
+
+                if (!workspace.isClosed(m)) {
+                    int g = workspace.getIntegerGCost(index) + neighbours.integerCost();
+
+                    if (open.contains(m)) {
+                        if (g < workspace.getIntegerGCost(m)) {
+                            open.update(m, fInteger(g, neighbour));
+                            workspace.recordInteger(m, g, index);
+                        }
+                    }
+                    else {
+                        open.put(m, fInteger(g, neighbour));
+                        workspace.recordInteger(m, g, index);
                     }
                 }
             }
             exp += 1;
         }
-        buildPath(closed, n);
-        return new SearchState(open, closed, gCosts);
+        this.pathPrefix = constructPath(workspace, index);
+        this.currentPathIndex = 0;
+        return workspace;
     }
 
-    private void buildPath(Map<Node, Node> closed, Node n) {
-        ArrayList<Node> newPath = new ArrayList<>();
-        Node x = n;
-        Node parent = closed.get(n);
-        while (parent != null) {
-            newPath.add(0, x);
-            x = parent;
-            parent = closed.get(x);
+    /**
+     * Search towards the current waypoint with a D* Lite planner kept between searches. The planner is only reset
+     * when the agent moves on to a new waypoint; otherwise it is moved to the agent's current node and repaired for
+     * the occupied nodes that appeared or disappeared within the agent's vision since the last search. Each search
+     * makes at most the agent's number of expansions, and continues where the last one stopped if that was not
+     * enough to reach the agent.
+     */
+    private void incrementalSearchPhase() {
+        if (nextNodeIsDefined() && time.getTimeSteps() <= limit) {
+            return;
+        }
+        while (currentWaypoint() != getGoal() && getCurrentNode().octileDistance(currentWaypoint()) <= closeness) {
+            nextWaypoint();
         }
-        newPath.add(0, x);
 
-        this.pathPrefix = newPath;
+        if (planner == null) {
+            planner = new DStarLite(graph, heuristic);
+        }
+        if (planner.getGoal() != currentWaypoint()) {
+            planner.reset(getCurrentNode(), currentWaypoint());
+            sensedBlocked.clear();
+        }
+        else {
+            planner.moveStart(getCurrentNode());
+        }
+
+        Set<Node> blocked = senseBlockedNodes();
+        for (Node node : sensedBlocked) {
+            if (!blocked.contains(node)) {
+                planner.setBlocked(node, false);
+            }
+        }
+        for (Node node : blocked) {
+            if (!sensedBlocked.contains(node)) {
+                planner.setBlocked(node, true);
+            }
+        }
+        sensedBlocked = blocked;
+
+        planner.computeShortestPath(expansions);
+        this.pathPrefix = planner.path(getCurrentNode(), moves);
         this.currentPathIndex = 0;
+        limit = time.getTimeSteps() + moves;
     }
 
-    private void updateHeuristicValues(Map<Node, Node> closed, Map<Node, Double> gCosts, double f) {
-        for (Node node : closed.keySet()) {
-            heuristics.replace(node, f - gCosts.get(node));
+    /**
+     * Find the occupied nodes within the agent's vision, other than its own node, its goal and its current
+     * waypoint.
+     */
+    private Set<Node> senseBlockedNodes() {
+        Set<Node> blocked = new HashSet<>();
+        Set<Node> seen = new HashSet<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        seen.add(getCurrentNode());
+        queue.add(getCurrentNode());
+        while (!queue.isEmpty()) {
+            Node n = queue.poll();
+            for (Node neighbour : graph.getNeigbours(n)) {
+                if (!seen.contains(neighbour) && getCurrentNode().euclideanDistance(neighbour) <= vision) {
+                    seen.add(neighbour);
+                    queue.add(neighbour);
+                    if (occupancy.isOccupied(neighbour) && neighbour != getGoal() && neighbour != currentWaypoint()) {
+                        blocked.add(neighbour);
+                    }
+                }
+            }
         }
+        return blocked;
     }
 
-    private double h(Node n) {
-        if (heuristics.containsKey(n)) {
-            return heuristics.get(n);
+    private void updateHeuristicValues(SearchWorkspace workspace, double f) {
+        for (int i = 0; i < workspace.closedCount(); i++) {
+            int node = workspace.closedNode(i);
+            heuristics.learn(node, (float) (f - workspace.getGCost(node)));
         }
-        double h = n.octileDistance(currentWaypoint());
-        heuristics.put(n, h);
-        return h;
     }
 
-    private class SearchState {
-        private PriorityQueue<Node> open;
-        private Map<Node, Node> closed;
-        private Map<Node, Double> gCosts;
-
-        public SearchState(PriorityQueue<Node> open, Map<Node, Node> closed, Map<Node, Double> gCosts) {
-            this.open = open;
-            this.closed = closed;
-            this.gCosts = gCosts;
+    private void updateHeuristicValuesInteger(SearchWorkspace workspace, long f) {
+        for (int i = 0; i < workspace.closedCount(); i++) {
+            int node = workspace.closedNode(i);
+            heuristics.learnInteger(node, (int) Math.min(Integer.MAX_VALUE, f - workspace.getIntegerGCost(node)));
         }
+    }
 
-        public PriorityQueue<Node> getOpen() {
-            return open;
-        }
+    /**
+     * The open list of the agent's searches in the workspace, see {@link #setBucketQueue(boolean)}.
+     */
+    private OpenList openList(SearchWorkspace workspace) {
+        return bucketQueue ? workspace.getBucketOpen() : workspace.getOpen();
+    }
 
-        public Map<Node, Node> getClosed() {
-            return closed;
+    private double h(Node n) {
+        float h = heuristics.get(n.getIndex());
+        if (Float.isNaN(h)) {
+            h = (float) heuristic.estimate(n, currentWaypoint());
+            heuristics.putEstimate(n.getIndex(), h);
         }
+        return h;
+    }
 
-        public Map<Node, Double> getGCosts() {
-            return gCosts;
+    private int hInteger(Node n) {
+        int h = heuristics.getInteger(n.getIndex());
+        if (h == LearnedHeuristics.MISSING_INTEGER) {
+            h = heuristic.estimateInteger(n, currentWaypoint());
+            heuristics.putEstimateInteger(n.getIndex(), h);
         }
+        return h;
+    }
+
+    /**
+     * The integer f-cost of a node, saturating rather than overflowing when its heuristic value is infinite.
+     */
+    private int fInteger(int g, Node n) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) g + hInteger(n));
     }
 
     // -----------------------------------
 
+    /**
+     * Set the heuristic used to estimate distances to nodes the agent has not learned a value for. Must be set
+     * before the agent first searches.
+     * @param heuristic the heuristic provider, {@link OctileHeuristic} by default
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Set the engine used to compute the agent's full path in {@link #init()}.
+     * @param pathEngine the path engine, A* over the graph by default
+     */
+    public void setPathEngine(PathEngine pathEngine) {
+        this.pathEngine = pathEngine;
+    }
+
+    /**
+     * Search with g-costs, heuristic values and open list keys scaled to integers with
+     * {@link DataStructures.graph.IntegerCosts}, so f-costs are added and compared exactly and the open list is a
+     * {@link IntKeyPriorityQueue} whatever {@link #setBucketQueue(boolean)} says. The full path is computed with
+     * integer costs too, see {@link AStarPathEngine}, when no other path engine has been set. Learned values are kept
+     * scaled, so this must be set before the agent first searches. The incremental search keeps double costs.
+     * @param integerCosts true to search with integer costs
+     */
+    public void setIntegerCosts(boolean integerCosts) {
+        this.integerCosts = integerCosts;
+    }
+
+    /**
+     * Use the nodes where the full path enters each cluster as waypoints, instead of nodes at a fixed spacing
+     * along the path. Only takes effect when the path engine is a {@link HierarchicalPathEngine}.
+     * @param abstractWaypoints true to take waypoints from the abstract path
+     */
+    public void setAbstractWaypoints(boolean abstractWaypoints) {
+        this.abstractWaypoints = abstractWaypoints;
+    }
+
+    /**
+     * Keep a D* Lite search tree between searches and repair it as nearby nodes become occupied or free, instead of
+     * running a new bounded search every time the agent replans. Must be set before the agent first searches.
+     * @param incremental true to search incrementally
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Keep the open list of the agent's searches in a {@link DataStructures.BucketPriorityQueue} instead of a
+     * binary heap. Both give the node with the lowest f-cost first but may break ties differently.
+     * @param bucketQueue true to use a bucket queue
+     */
+    public void setBucketQueue(boolean bucketQueue) {
+        this.bucketQueue = bucketQueue;
+    }
+
     /**
      * Returns whether or not the node the agent will next move to is defined.
      * An agents next node will be undefined if it has been pushed off its current path or it has reached the end of
@@ -265,10 +504,10 @@ public class WaypointAgent extends Agent {
     public void moveToNextOnPath() {
         updateMetrics(this.pathPrefix.get(currentPathIndex + 1));
 
-        getCurrentNode().leave();
+        occupancy.leave(getCurrentNode());
         this.currentPathIndex += 1;
         setCurrentNode(this.pathPrefix.get(currentPathIndex));
-        getCurrentNode().enter(this);
+        occupancy.enter(getCurrentNode(), this);
     }
 
     /**
@@ -278,9 +517,9 @@ public class WaypointAgent extends Agent {
     private void moveTo(Node node){
         updateMetrics(node);
 
-        getCurrentNode().leave();
+        occupancy.leave(getCurrentNode());
         setCurrentNode(node);
-        getCurrentNode().enter(this);
+        occupancy.enter(getCurrentNode(), this);
     }
 
     /**
@@ -293,7 +532,7 @@ public class WaypointAgent extends Agent {
         Set<Node> adjacentNodes = this.graph.getNeigbours(getCurrentNode());
 
         for (Node node : adjacentNodes) {
-            if (!node.isOccupied()) {
+            if (!occupancy.isOccupied(node)) {
                 moveTo(node);
                 return node;
             }
@@ -435,9 +674,19 @@ public class WaypointAgent extends Agent {
      * Initiate the agents state to use the first waypoint.
      */
     public void init() {
-        List<Node> fullPath = computeFullPath();
-        this.waypointSpacing = (int) Math.ceil(Math.sqrt(fullPath.size()));
-        waypoints = reduceToWaypoints(fullPath);
+        if (abstractWaypoints && pathEngine instanceof HierarchicalPathEngine) {
+            HierarchicalPathEngine.Route route =
+                    ((HierarchicalPathEngine) pathEngine).findRoute(getCurrentNode(), getGoal());
+            if (route == null) {
+                throw new RuntimeException("Goal is not reachable for agent with starting position " + getStart() + " and goal position " + getGoal());
+            }
+            waypoints = new ArrayList<>(route.getWaypoints());
+        }
+        else {
+            List<Node> fullPath = computeFullPath();
+            this.waypointSpacing = (int) Math.ceil(Math.sqrt(fullPath.size()));
+            waypoints = reduceToWaypoints(fullPath);
+        }
         this.currentWaypointIndex = 0;
     }
 
@@ -456,81 +705,34 @@ public class WaypointAgent extends Agent {
     }
 
     /**
-     * Use the A* algorithm to compute a full path from the current position to the
-     * goal position.
+     * Compute a full path from the current position to the goal position with the agent's path engine, A* guided
+     * by the agent's heuristic unless another engine has been set. The search runs in the calling thread's search
+     * workspace, so agents can compute their full paths concurrently.
      * @return a path of nodes that will lead to the goal
      */
     public List<Node> computeFullPath() {
-        Node start = getStart();
-        Node goal = getGoal();
-
-        PriorityQueue<Node> open = new PriorityQueue<>();
-        Map<Node, Node> closed = new HashMap<>();
-        Map<Node, Double> gCosts = new HashMap<>();
-
-        open.put(getCurrentNode(), 0);
-        gCosts.put(getCurrentNode(), 0.00);
-
-        Map<Node, Node> parents = new HashMap<>();
-        parents.put(getCurrentNode(), null);
-
-        Node n = null;
-        while (!open.isEmpty()) {
-            n = open.get();
-            closed.put(n, parents.get(n));
-
-            if (n == goal) {
-                return constructPath(closed, n);
-            }
-
-            for (Node neighbour : graph.getNeigbours(n)) {
-                if (!closed.containsKey(neighbour)) {
-                    if (open.contains(neighbour)) {
-                        double gCostOnRecord = gCosts.get(neighbour);
-                        double newGCost = gCosts.get(n) + graph.getEdge(n, neighbour).getWeight();
-
-                        if (newGCost < gCostOnRecord) {
-                            open.update(neighbour, newGCost + neighbour.octileDistance(goal));
-                            parents.replace(neighbour, n);
-                            gCosts.replace(neighbour, newGCost);
-                        }
-                    }
-                    else {
-                        double g = gCosts.get(n) + graph.getEdge(n, neighbour).getWeight();
-
-                        open.put(neighbour, g + neighbour.octileDistance(goal));
-                        parents.put(neighbour, n);
-                        gCosts.put(neighbour, g);
-                    }
-                }
-            }
+        PathEngine engine = pathEngine != null ? pathEngine : new AStarPathEngine(graph, heuristic, integerCosts);
+        List<Node> path = engine.findPath(getCurrentNode(), getGoal());
+        if (path == null) {
+            throw new RuntimeException("Goal is not reachable for agent with starting position " + getStart() + " and goal position " + getGoal());
         }
-
-        throw new RuntimeException("Goal is not reachable for agent with starting position " + start + " and goal position " + goal);
+        return path;
     }
 
     /**
-     * Construct a path to a specified node n using a mapping from nodes to parent nodes on the path.
-     * @param parents a mapping from nodes to their parents nodes on the path
-     * @param target the node to compute a path to
+     * Construct a path to a specified node using the parent pointers recorded in a search workspace.
+     * @param workspace the workspace of the search which reached the target
+     * @param target the index of the node to compute a path to
      * @return an ordered list of nodes which is the path to the target node
      */
-    private List<Node> constructPath(Map<Node, Node> parents, Node target) {
+    private List<Node> constructPath(SearchWorkspace workspace, int target) {
         List<Node> path = new ArrayList<>();
-        Node n = target;
-        Node parent = parents.get(n);
-        while (parent != null) {
-            path.add(0, n);
-            n = parent;
-            parent = parents.get(n);
-        }
-        path.add(0, n);
-        for (Node element : path) {
-            if (element == null) {
-                for (Node e : path) System.out.println(e);
-                System.exit(1);
-            }
+        int n = target;
+        while (n != SearchWorkspace.NO_PARENT) {
+            path.add(graph.getNodeByIndex(n));
+            n = workspace.getParent(n);
         }
+        Collections.reverse(path);
         return path;
     }
 
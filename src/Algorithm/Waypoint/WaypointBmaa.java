@@ -1,5 +1,10 @@
 package Algorithm.Waypoint;
 
+import Algorithm.AgentPool;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Pathfinding.HierarchicalPathEngine;
+import Algorithm.Pathfinding.PathEngine;
+import Algorithm.Occupancy;
 import Algorithm.Time;
 import Algorithm.Util;
 import Benchmark.Benchmark;
@@ -21,6 +26,7 @@ public class WaypointBmaa {
     public static final int DEFAULT_EXPANSIONS = 32;
     public static final double DEFAULT_VISION = Math.sqrt(2);
     public static final int DEFAULT_MOVES = 32;
+    public static final int DEFAULT_INIT_WORKERS = 1;
 
 
     private final int EXPANSIONS;
@@ -32,7 +38,17 @@ public class WaypointBmaa {
     private Graph graph;
     private List<WaypointAgent> agents;
 
-    private Time time = new Time();
+    private Time time;
+
+    /**
+     * Which agent occupies each node during this run. The graph itself is never modified, so it can be shared.
+     */
+    private Occupancy occupancy;
+
+    /**
+     * Computes the full paths and waypoints of every agent, in parallel when configured with more than one worker.
+     */
+    private AgentPool initPool;
 
     /**
      * The time limit imposed on runtime of the algorithm, in milliSeconds
@@ -41,6 +57,29 @@ public class WaypointBmaa {
 
     public WaypointBmaa(Graph graph, List<Node> s, List<Node> t,
                         int expansions, double vision, int moves, boolean push, boolean flow) {
+        this(graph, s, t, expansions, vision, moves, push, flow, DEFAULT_INIT_WORKERS);
+    }
+
+    /**
+     * Create an instance of the algorithm whose initialisation stage, computing a full path and waypoints for
+     * every agent, runs across the given number of worker threads.
+     * @param initWorkers the number of threads used to initialise agents, 1 to initialise on the calling thread
+     */
+    public WaypointBmaa(Graph graph, List<Node> s, List<Node> t,
+                        int expansions, double vision, int moves, boolean push, boolean flow, int initWorkers) {
+        this(graph, s, t, expansions, vision, moves, push, flow, initWorkers, new Time());
+    }
+
+    /**
+     * Create an instance of the algorithm that measures its run time, and so its time limits, with the given
+     * time keeper. Use {@link Time#threadCpuTime()} to give each run a CPU time budget when several runs share
+     * the machine, or {@link Time#stepCount(long)} for runs that are reproducible under any load.
+     * @param time the time keeper of the run
+     */
+    public WaypointBmaa(Graph graph, List<Node> s, List<Node> t,
+                        int expansions, double vision, int moves, boolean push, boolean flow, int initWorkers, Time time) {
+        this.time = time;
+        this.initPool = new AgentPool(initWorkers);
         this.EXPANSIONS = expansions;
         this.VISION = vision;
         this.MOVES = moves;
@@ -48,13 +87,78 @@ public class WaypointBmaa {
         this.FLOW = flow;
 
         this.graph = graph;
+        this.occupancy = new Occupancy(graph);
         createAgents(graph, s, t, expansions, vision, moves, push, flow);
     }
 
+    /**
+     * Give every agent the same heuristic for estimating distances to nodes it has not learned a value for, such
+     * as a {@link Algorithm.Heuristics.DifferentialHeuristic} built for the graph. Must be set before running.
+     * @param heuristic the heuristic provider
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        for (WaypointAgent agent : agents) {
+            agent.setHeuristic(heuristic);
+        }
+    }
+
+    /**
+     * Give every agent the same engine for computing its full path, such as
+     * {@link Algorithm.Pathfinding.JumpPointSearch} on grid maps. Must be set before running.
+     * @param pathEngine the path engine
+     */
+    public void setPathEngine(PathEngine pathEngine) {
+        for (WaypointAgent agent : agents) {
+            agent.setPathEngine(pathEngine);
+        }
+    }
+
+    /**
+     * Plan every agent's route with a hierarchical engine and use the nodes where the route enters each cluster
+     * as the agent's waypoints. Must be set before running.
+     * @param engine the hierarchical engine for the graph, see {@link HierarchicalPathEngine#forGraph(Graph, int)}
+     */
+    public void useAbstractWaypoints(HierarchicalPathEngine engine) {
+        for (WaypointAgent agent : agents) {
+            agent.setPathEngine(engine);
+            agent.setAbstractWaypoints(true);
+        }
+    }
+
+    /**
+     * Have every agent keep its search tree between searches and repair it as occupancy changes, see
+     * {@link WaypointAgent#setIncremental(boolean)}. Must be set before running.
+     */
+    public void useIncrementalSearch() {
+        for (WaypointAgent agent : agents) {
+            agent.setIncremental(true);
+        }
+    }
+
+    /**
+     * Have every agent compute its full path and search with costs scaled to integers, see
+     * {@link WaypointAgent#setIntegerCosts(boolean)}. Must be set before running.
+     */
+    public void useIntegerCosts() {
+        for (WaypointAgent agent : agents) {
+            agent.setIntegerCosts(true);
+        }
+    }
+
+    /**
+     * Have every agent keep its open list in a bucket queue, see {@link WaypointAgent#setBucketQueue(boolean)}.
+     * Must be set before running.
+     */
+    public void useBucketQueue() {
+        for (WaypointAgent agent : agents) {
+            agent.setBucketQueue(true);
+        }
+    }
+
     public Result runWithTimeLimit(Duration timeLimit) {
         this.timeLimit = timeLimit.toMillis();
 
-        for (WaypointAgent a : agents) a.init();
+        initAgents();
         System.out.println("Finished computing full paths and decomposing");
         while (!allAgentsAtGoals() && underTimeLimit()) {
             time.startStopWatch();
@@ -74,7 +178,7 @@ public class WaypointBmaa {
     public List<Result> runWithMultipleTimeLimits(List<Integer> stopTimes) {
         List<Result> results = new ArrayList<>();
 
-        for (WaypointAgent agent : agents) agent.init();
+        initAgents();
 
         for (int stopTime : stopTimes) {
             this.timeLimit = stopTime;
@@ -96,7 +200,7 @@ public class WaypointBmaa {
     public List<Result> runWithMultipleTimeLimitsWithMovementCost(List<Integer> stopTimes) {
         List<Result> results = new ArrayList<>();
 
-        for (WaypointAgent agent : agents) agent.init();
+        initAgents();
 
         for (int stopTime : stopTimes) {
             this.timeLimit = stopTime;
@@ -123,7 +227,7 @@ public class WaypointBmaa {
         List<Result> results = new ArrayList<>();
 
         time.startStopWatch();
-        for (WaypointAgent agent : agents) agent.init();
+        initAgents();
         time.stopStopWatch();
 
         for (int stopTime : stopTimes) {
@@ -146,7 +250,7 @@ public class WaypointBmaa {
         List<Result> results = new ArrayList<>();
 
         time.startStopWatch();
-        for (WaypointAgent agent : agents) agent.init();
+        initAgents();
         time.stopStopWatch();
 
         for (int stopTime : stopTimes) {
@@ -250,11 +354,11 @@ public class WaypointBmaa {
         for (WaypointAgent agent : agents) {
             if (agent.nextNodeIsDefined()) {
                 Node n = agent.getNextNode();
-                if (PUSH && n.isOccupied() && n.getAgent().atGoal()) {
-                    n.getAgent().push();
+                if (PUSH && occupancy.isOccupied(n) && occupancy.getAgent(n).atGoal()) {
+                    occupancy.getAgent(n).push();
                 }
 
-                if (!n.isOccupied()) {
+                if (!occupancy.isOccupied(n)) {
                     agent.moveToNextOnPath();
                 }
             }
@@ -271,11 +375,11 @@ public class WaypointBmaa {
         for (WaypointAgent agent : agents) {
             if (agent.nextNodeIsDefined()) {
                 Node n = agent.getNextNode();
-                if (PUSH && n.isOccupied() && n.getAgent().atGoal()) {
-                    n.getAgent().push();
+                if (PUSH && occupancy.isOccupied(n) && occupancy.getAgent(n).atGoal()) {
+                    occupancy.getAgent(n).push();
                 }
 
-                if (!n.isOccupied()) {
+                if (!occupancy.isOccupied(n)) {
                     agent.moveToNextOnPath();
                 }
             }
@@ -292,11 +396,23 @@ public class WaypointBmaa {
     }
     // ------------------------------------------------------------------------------------------
 
+    /**
+     * Compute the full path of every agent and reduce it to waypoints. Each agent is independent of the others,
+     * so this is spread across the initialisation workers.
+     */
+    private void initAgents() {
+        try {
+            initPool.forEach(agents, WaypointAgent::init);
+        } finally {
+            initPool.shutdown();
+        }
+    }
+
     private void createAgents(Graph graph, List<Node> s, List<Node> t,
                                      int expansions, double vision, int moves, boolean push, boolean flow) {
         agents = new ArrayList<>();
         for (int i=0; i<s.size(); i++) {
-           agents.add(new WaypointAgent(graph, s.get(i), t.get(i), expansions, vision, moves, time, 10*Math.sqrt(2)));
+           agents.add(new WaypointAgent(graph, occupancy, s.get(i), t.get(i), expansions, vision, moves, time, 10*Math.sqrt(2)));
         }
     }
 
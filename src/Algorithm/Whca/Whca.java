@@ -0,0 +1,323 @@
+package Algorithm.Whca;
+
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Occupancy;
+import Algorithm.Time;
+import Benchmark.ProblemSet;
+import Benchmark.Result;
+import DataStructures.ReservationTable;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+import Error.NoAgentAtGoalException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Windowed Hierarchical Cooperative A* (Silver, 2005). Agents plan one after another through a shared space-time
+ * reservation table, each avoiding the nodes and moves of the agents which planned before it, so the plans of a
+ * window fit together instead of being repaired by waiting and pushing as in BMAA.
+ *
+ * Plans only look a window of time steps ahead. All agents plan again every half window, and the order they plan
+ * in is rotated each time so no agent always has the lowest priority. An agent which is kept from making its
+ * planned move, by an agent which did not get out of the way in time, plans again on its own from where it is, as
+ * does an agent whose plan could not be reserved to the end of the window. Runs are measured and reported in the
+ * same way as {@link Algorithm.Bmaa.Bmaa}, so results of the two can be compared directly.
+ */
+public class Whca {
+
+    public static final int DEFAULT_WINDOW = 16;
+    public static final int DEFAULT_EXPANSIONS = 256;
+
+    private final int WINDOW;
+
+    private Graph graph;
+    private List<WhcaAgent> agents;
+
+    private Time time;
+
+    /**
+     * Which agent occupies each node during this run. The graph itself is never modified, so it can be shared.
+     */
+    private Occupancy occupancy;
+
+    /**
+     * The reservations of the current window, by node and time step.
+     */
+    private ReservationTable reservations;
+
+    private int nextReplan = 0;
+    private int replans = 0;
+
+    /**
+     * The time limit imposed on runtime of the algorithm, in milliSeconds
+     */
+    private long timeLimit;
+
+    public Whca(ProblemSet problemSet, int window, int expansions) {
+        this(problemSet.getGraph(), problemSet.getS(), problemSet.getT(), window, expansions);
+    }
+
+    public Whca(Graph graph, List<Node> s, List<Node> t, int window, int expansions) {
+        this(graph, s, t, window, expansions, new Time());
+    }
+
+    /**
+     * Create an instance of the algorithm that measures its run time, and so its time limits, with the given
+     * time keeper.
+     * @param window the number of time steps agents plan ahead
+     * @param expansions the largest number of states an agent expands when planning a window
+     * @param time the time keeper of the run
+     */
+    public Whca(Graph graph, List<Node> s, List<Node> t, int window, int expansions, Time time) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1 but was " + window);
+        }
+        if ((long) (window + 1) * graph.indexBound() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window of " + window + " is too long for a graph of " + graph.indexBound() + " nodes");
+        }
+        this.time = time;
+        this.WINDOW = window;
+
+        this.graph = graph;
+        this.occupancy = new Occupancy(graph);
+        this.reservations = new ReservationTable(s.size() * (window + 1));
+        createAgents(graph, s, t, window, expansions);
+    }
+
+    /**
+     * Give every agent the same heuristic to guide its space-time search, such as a
+     * {@link Algorithm.Heuristics.GoalDistanceCache} for the graph. Must be set before running.
+     * @param heuristic the heuristic provider
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        for (WhcaAgent agent : agents) {
+            agent.setHeuristic(heuristic);
+        }
+    }
+
+    public Result runWithTimeLimit(Duration timeLimit) {
+        this.timeLimit = timeLimit.toMillis();
+
+        while (!allAgentsAtGoals() && underTimeLimit()) {
+            timeStep();
+        }
+        return collectResults();
+    }
+
+    /**
+     * Run the algorithm, but at given stop times pause the execution and gather current statistics at that time.
+     * @param stopTimes integer values which indicate the time in milli seconds at which to pause execution
+     *                  gather statistics about the progress of the run.
+     * @return the results of the algorithm at each stop time
+     */
+    public List<Result> runWithMultipleTimeLimits(List<Integer> stopTimes) {
+        List<Result> results = new ArrayList<>();
+
+        for (int stopTime : stopTimes) {
+            this.timeLimit = stopTime;
+            while (!allAgentsAtGoals() && underTimeLimit()) {
+                timeStep();
+            }
+            try {
+                results.add(collectResults());
+            } catch (NoAgentAtGoalException e) {
+                e.printStackTrace();
+                System.out.println("Skipping " + stopTime + "ms timelimit");
+            }
+        }
+        return results;
+    }
+
+    private Result collectResults() {
+
+        // Completion Rate
+        int agentsAtGoal = 0;
+        for (WhcaAgent agent : agents) {
+            if (agent.atGoalBeforeTimeLimit(timeLimit)) {
+                agentsAtGoal += 1;
+            }
+        }
+
+        double completionRate = (double) agentsAtGoal / (double) agents.size();
+
+        // Completion Time (Seconds)
+        double averageCompletionTimeSeconds =
+                agents.stream()
+                        .mapToDouble(agent -> {
+                            Long completionTimeSeconds = agent.getCompletionTimeSeconds(timeLimit);
+                            if (completionTimeSeconds == null) {
+                                return timeLimit;
+                            }
+                            else {
+                                return completionTimeSeconds;
+                            }
+                        })
+                        .average()
+                        .orElseThrow(RuntimeException::new);
+
+        // Completion Time (Time steps)
+        int max =
+                agents.stream()
+                        .filter(agent -> agent.getCompletionTimeSteps(timeLimit) != null)
+                        .mapToInt(agent -> agent.getCompletionTimeSteps(timeLimit))
+                        .max()
+                        .orElseThrow(() -> {
+                            System.out.println("Error: Completion rate: " + completionRate);
+                            return new NoAgentAtGoalException("For " + this.agents.size() + "agents with time limit of " + timeLimit);
+                        });
+
+        double averageCompletionTimeSteps =
+                agents.stream()
+                        .mapToInt(agent -> {
+                            if (agent.getCompletionTimeSteps(timeLimit) == null) {
+                                return max;
+                            }
+                            else {
+                                return agent.getCompletionTimeSteps(timeLimit);
+                            }
+                        })
+                        .average()
+                        .orElseThrow(RuntimeException::new);
+
+        // Travel distances
+        double averageTravelDistance =
+                agents.stream()
+                        .mapToDouble(agent -> agent.getTravelDistance(timeLimit))
+                        .average()
+                        .orElseThrow(RuntimeException::new);
+
+        return new Result(
+                (int) timeLimit,
+                agents.size(),
+                completionRate,
+                averageCompletionTimeSeconds,
+                averageCompletionTimeSteps,
+                averageTravelDistance);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Run a single time step of the algorithm: the agents plan if a new window is due, and then every agent makes
+     * the move its plan gives it. The step is timed by the algorithm's stopwatch as it would be during a run.
+     */
+    public void timeStep() {
+        time.startStopWatch();
+        npcController();
+        time.stopStopWatch();
+    }
+
+    private void npcController() {
+        int now = time.getTimeSteps();
+        if (now >= nextReplan) {
+            planWindow(now);
+        }
+
+        // Plans never put two agents on a node at once, but an agent can only move onto the node of the agent
+        // ahead of it once that one has moved, so moves are retried until none of those left can be made
+        List<WhcaAgent> waiting = new ArrayList<>();
+        for (WhcaAgent agent : agents) {
+            if (agent.getPlannedNode(now) != agent.getCurrentNode()) {
+                waiting.add(agent);
+            }
+        }
+        boolean moved = true;
+        while (moved && !waiting.isEmpty()) {
+            moved = false;
+            List<WhcaAgent> blocked = new ArrayList<>();
+            for (WhcaAgent agent : waiting) {
+                Node n = agent.getPlannedNode(now);
+                if (!occupancy.isOccupied(n)) {
+                    agent.moveTo(n);
+                    moved = true;
+                }
+                else {
+                    blocked.add(agent);
+                }
+            }
+            waiting = blocked;
+        }
+        time.incrementTimeStep();
+
+        // Agents which could not make their planned move are no longer where their reservations say, and agents
+        // whose reservations run out hold no node for their next move, so they give up their plans and plan again
+        // from where they are, around the reservations of everyone else
+        int next = time.getTimeSteps();
+        if (next < nextReplan) {
+            List<WhcaAgent> replanning = new ArrayList<>();
+            for (WhcaAgent agent : agents) {
+                if (agent.getCurrentNode() != agent.getPlannedNode(now) || !agent.isReservedUntil(next + 1)) {
+                    replanning.add(agent);
+                }
+            }
+            for (WhcaAgent agent : replanning) {
+                agent.releasePlan(reservations);
+                reserveCurrentNode(agent, next);
+            }
+            for (WhcaAgent agent : replanning) {
+                agent.plan(reservations, next);
+            }
+        }
+    }
+
+    /**
+     * Clear the reservations and have every agent plan the next window, in an order rotated by one agent each time.
+     * Every agent's current node is reserved first so that no agent plans to move onto an agent which has not
+     * planned yet before it has had a chance to move away.
+     */
+    private void planWindow(int now) {
+        reservations.clear();
+        for (WhcaAgent agent : agents) {
+            reserveCurrentNode(agent, now);
+        }
+
+        int first = replans % agents.size();
+        for (int i = 0; i < agents.size(); i++) {
+            agents.get((first + i) % agents.size()).plan(reservations, now);
+        }
+
+        replans += 1;
+        nextReplan = now + Math.max(1, WINDOW / 2);
+    }
+
+    /**
+     * Reserve an agent's current node for this time step and the next, until the agent plans and gives up the
+     * second if it moves away. Agents which plan before it cannot then plan to move onto its node in the next time
+     * step while it may still be there.
+     */
+    private void reserveCurrentNode(WhcaAgent agent, int now) {
+        int node = agent.getCurrentNode().getIndex();
+        reservations.reserve(node, now, agent.getId());
+        reservations.reserve(node, now + 1, agent.getId());
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private void createAgents(Graph graph, List<Node> s, List<Node> t, int window, int expansions) {
+        agents = new ArrayList<>();
+        for (int i=0; i<s.size(); i++) {
+            agents.add(new WhcaAgent(graph, occupancy, s.get(i), t.get(i), window, expansions, time));
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Returns true if all agents are at their goals, false otherwise.
+     * @return a boolean indicating if all agents are at their goals
+     */
+    private boolean allAgentsAtGoals() {
+        return agents.stream()
+                .allMatch(agent -> agent.atGoalBeforeTimeLimit(timeLimit));
+    }
+
+    /**
+     * Return true if the current execution time indicated by the stopwatch is under the time limit.
+     * @return a boolean indicating if execution time is under the time limit
+     */
+    private boolean underTimeLimit() {
+        return time.milliSecondsElapsed() < timeLimit;
+    }
+}
@@ -0,0 +1,393 @@
+package Algorithm.Whca;
+
+import Algorithm.Agent;
+import Algorithm.Heuristics.HeuristicProvider;
+import Algorithm.Heuristics.OctileHeuristic;
+import Algorithm.Occupancy;
+import Algorithm.Time;
+import DataStructures.IntIntHashMap;
+import DataStructures.IntPriorityQueue;
+import DataStructures.ReservationTable;
+import DataStructures.graph.Graph;
+import DataStructures.graph.Node;
+
+import java.util.*;
+
+public class WhcaAgent extends Agent {
+
+    private Graph graph;
+    private Occupancy occupancy;
+
+    private Node previousNode;
+    private Long lastMoveTime;
+
+    private Integer completionTimeSteps;
+    private Long completionTimeSeconds;
+    private Double travelDistance;
+
+    private int window;
+    private int expansions;
+
+    private List<Node> plan;
+    private int planStart;
+
+    /**
+     * The last time step up to which the agent holds the reservations of its plan.
+     */
+    private int reservedUntil;
+
+    private Time time;
+
+    private HeuristicProvider heuristic = OctileHeuristic.INSTANCE;
+
+    /**
+     * The state of the space-time searches made on each thread. Agents plan one at a time, so they share it rather
+     * than each keeping their own.
+     */
+    private static final ThreadLocal<SpaceTimeSearch> SEARCHES = ThreadLocal.withInitial(SpaceTimeSearch::new);
+
+    public WhcaAgent(Graph graph, Occupancy occupancy, Node start, Node goal,
+                     int window, int expansions, Time time) {
+        this.graph = graph;
+        this.occupancy = occupancy;
+        occupancy.register(this);
+        setStart(start);
+        setCurrentNode(start);
+        setGoal(goal);
+        occupancy.enter(start, this);
+
+        this.window = window;
+        this.expansions = expansions;
+
+        this.time = time;
+
+        this.plan = new ArrayList<>();
+        this.plan.add(start);
+        this.planStart = 0;
+
+        // Completion Time (Seconds) edge case: if the agent starts on its goal
+        // we must set its completion time (seconds) to = 0
+        // Completion Time (Time Steps) has the same edge case, so we must
+        // set its completion time (time steps) to = 0 also
+        if (getStart() == getGoal()) {
+            this.completionTimeSeconds = 0L;
+            this.completionTimeSteps = 0;
+        }
+
+        this.travelDistance = 0.00;
+
+        this.lastMoveTime = 0L;
+    }
+
+    // -----------------------------------
+
+    /**
+     * Plan the agent's moves for the next window of time steps with a space-time A* search, avoiding the nodes and
+     * moves reserved by other agents, and reserve the planned nodes in the table.
+     *
+     * States are (node, time step) pairs, and from each state the agent can move to a neighbour or wait where it
+     * is. Waiting costs 1 unless the agent is on its goal, so an agent which has arrived plans to stay put but will
+     * step aside for another agent if it must. The search ends when it reaches the end of the window. If it runs
+     * out of expansions first, the agent follows the plan to the deepest state it found, preferring the one closest
+     * to its goal, and then waits there until the end of the window. Those waits are not checked by the search, so
+     * another agent may already hold the node; the plan is then only reserved up to that time step, and the agent
+     * must plan again before it gets there.
+     * @param table the reservations of the agents which have already planned for this window
+     * @param now the current time step
+     */
+    public void plan(ReservationTable table, int now) {
+        int bound = graph.indexBound();
+        int id = getId();
+
+        SpaceTimeSearch search = SEARCHES.get();
+        search.reset();
+        IntPriorityQueue open = search.open;
+
+        int startSlot = search.slot(getCurrentNode().getIndex(), h(getCurrentNode()), 0.00, -1);
+        open.put(startSlot, search.h[startSlot]);
+
+        int best = startSlot;
+        int exp = 0;
+        while (!open.isEmpty()) {
+            int slot = open.get();
+            search.closed[slot] = true;
+            int t = search.states[slot] / bound;
+            Node n = graph.getNodeByIndex(search.states[slot] % bound);
+
+            int bestT = search.states[best] / bound;
+            if (t > bestT || (t == bestT && search.h[slot] < search.h[best])) {
+                best = slot;
+            }
+            if (t == window || exp >= expansions) {
+                break;
+            }
+
+            List<Node> successors = new ArrayList<>(graph.getNeigbours(n));
+            successors.add(n);
+            for (Node successor : successors) {
+                int m = successor.getIndex();
+                if (table.isReservedByOther(m, now + t + 1, id) || table.isSwap(n.getIndex(), m, now + t, id)) {
+                    continue;
+                }
+
+                double cost;
+                if (successor == n) {
+                    cost = n == getGoal() ? 0 : 1;
+                }
+                else {
+                    cost = graph.getEdge(n, successor).getWeight();
+                }
+                double g = search.g[slot] + cost;
+
+                int next = search.find((t + 1) * bound + m);
+                if (next == IntIntHashMap.MISSING) {
+                    next = search.slot((t + 1) * bound + m, h(successor), g, slot);
+                    open.put(next, g + search.h[next]);
+                }
+                else if (!search.closed[next] && g < search.g[next]) {
+                    search.g[next] = g;
+                    search.parents[next] = slot;
+                    open.update(next, g + search.h[next]);
+                }
+            }
+            exp += 1;
+        }
+
+        List<Node> path = new ArrayList<>();
+        for (int slot = best; slot != -1; slot = search.parents[slot]) {
+            path.add(graph.getNodeByIndex(search.states[slot] % bound));
+        }
+        Collections.reverse(path);
+
+        this.plan = path;
+        this.planStart = now;
+        this.reservedUntil = now + window;
+        table.release(getCurrentNode().getIndex(), now + 1, id);
+        table.reserve(getCurrentNode().getIndex(), now, id);
+        for (int i = 1; i <= window; i++) {
+            if (!table.reserve(nodeAt(i).getIndex(), now + i, id)) {
+                this.reservedUntil = now + i - 1;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Release the reservations made for the agent's current plan.
+     * @param table the table the plan was reserved in
+     */
+    public void releasePlan(ReservationTable table) {
+        for (int i = 0; i <= reservedUntil - planStart; i++) {
+            table.release(nodeAt(i).getIndex(), planStart + i, getId());
+        }
+    }
+
+    /**
+     * Returns whether the agent holds the reservations of its plan up to the given time step.
+     */
+    public boolean isReservedUntil(int timeStep) {
+        return timeStep <= reservedUntil;
+    }
+
+    /**
+     * The node the current plan has the agent at a number of time steps after it was made. A plan cut short by
+     * running out of expansions keeps the agent at its last node for the rest of the window.
+     */
+    private Node nodeAt(int step) {
+        return plan.get(Math.min(step, plan.size() - 1));
+    }
+
+    private double h(Node n) {
+        return heuristic.estimate(n, getGoal());
+    }
+
+    /**
+     * Set the heuristic the space-time search is guided by. An exact one such as
+     * {@link Algorithm.Heuristics.GoalDistanceCache} gives far better plans in maps with dead ends, as the search
+     * only looks a window ahead.
+     * @param heuristic the heuristic provider, {@link OctileHeuristic} by default
+     */
+    public void setHeuristic(HeuristicProvider heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Returns the node the agent's plan has it at after the given time step, which is its current node if the plan
+     * has it wait, has run out or is not reserved that far.
+     * @param now the current time step
+     */
+    public Node getPlannedNode(int now) {
+        int index = now - planStart + 1;
+        if (index < 1 || index >= plan.size() || !isReservedUntil(now + 1)) {
+            return getCurrentNode();
+        }
+        return plan.get(index);
+    }
+
+    // -----------------------------------
+
+    /**
+     * Move to an adjacent node.
+     * @param node the node to move to
+     */
+    public void moveTo(Node node) {
+        updateMetrics(node);
+
+        occupancy.leave(getCurrentNode());
+        setCurrentNode(node);
+        occupancy.enter(getCurrentNode(), this);
+    }
+
+    /**
+     * Move to any neighbouring node of the agents current node which is free. Agents planning cooperatively step
+     * aside as part of their plans, so this is only needed by controllers which push agents off their goals.
+     *
+     * @return the node it has been pushed to, or null if every neighbour is occupied
+     */
+    public Node push() {
+        for (Node node : graph.getNeigbours(getCurrentNode())) {
+            if (!occupancy.isOccupied(node)) {
+                moveTo(node);
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // ----------------------------------------------------------------------
+
+    /**
+     * Update the part of the agents state used for recording performance measures.
+     *
+     * @param nextNode the node the agent will move to next
+     */
+    private void updateMetrics(Node nextNode) {
+        // Metrics for completion rate
+        this.previousNode = getCurrentNode();
+        this.lastMoveTime = this.time.milliSecondsElapsed();
+
+        // Completion Time (Seconds) and Completion Time (Time-Steps)
+        if (nextNode == getGoal()) {
+            this.completionTimeSeconds = this.time.milliSecondsElapsed();
+            this.completionTimeSteps = this.time.getTimeSteps();
+        }
+
+        // Travel distance
+        this.travelDistance += graph.getEdge(getCurrentNode(), nextNode).getWeight();
+    }
+
+    /**
+     * Determine if the agent was at its goal before a given time limit.
+     * @param timeLimit the time after which we should consider a move to be invalid
+     * @return a boolean indicating if the agent was at its goal
+     */
+    public boolean atGoalBeforeTimeLimit(long timeLimit) {
+        // Special case where the agent never moved
+        if (previousNode == null) {
+            return getCurrentNode() == getGoal();
+        }
+        // Otherwise compare the node against the agents correct position according to the time limit
+        if (lastMoveTime < timeLimit) {
+            return getCurrentNode() == getGoal();
+        }
+        else {
+            return this.previousNode == getGoal();
+        }
+    }
+
+    /**
+     * Get the completion time (seconds) for the agent, or null if the agent is not at its goal. See
+     * {@link Algorithm.Bmaa.BmaaAgent#getCompletionTimeSeconds(long)}.
+     *
+     * @param timeLimit the time after which moves are considered invalid
+     * @return an Long value which is the agents completion time (seconds)
+     */
+    public Long getCompletionTimeSeconds(long timeLimit) {
+        if (lastMoveTime < timeLimit) {
+            return getCurrentNode() == getGoal() ? this.completionTimeSeconds : null;
+        }
+        else {
+            return this.previousNode == getGoal() ? this.completionTimeSeconds : null;
+        }
+    }
+
+    /**
+     * Get the completion time (time steps) for the agent, or null if the agent is not at its goal. See
+     * {@link Algorithm.Bmaa.BmaaAgent#getCompletionTimeSteps(long)}.
+     *
+     * @param timeLimit the time after which moves are considered invalid
+     * @return an Integer value which is the agents completion time (time steps)
+     */
+    public Integer getCompletionTimeSteps(long timeLimit) {
+        if (lastMoveTime < timeLimit) {
+            return getCurrentNode() == getGoal() ? this.completionTimeSteps + 1 : null;
+        }
+        else {
+            return this.previousNode == getGoal() ? this.completionTimeSteps + 1 : null;
+        }
+    }
+
+    /**
+     * Return the travel distance of the agent, the total sum of all edge costs which were traversed by the agent
+     * before the time limit.
+     *
+     * @param timeLimit the time after which agent moves are considered invalid
+     * @return a double which is the agents travel distance
+     */
+    public double getTravelDistance(long timeLimit) {
+        if (lastMoveTime < timeLimit) {
+            return this.travelDistance;
+        }
+        else {
+            double invalidMoveCost = graph.getEdge(getCurrentNode(), this.previousNode).getWeight();
+            return travelDistance - invalidMoveCost;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+
+    /**
+     * The open list and the g-costs, heuristic values and parents of the states of a space-time search. States are
+     * numbered t * |V| + node and given slots in the order they are generated.
+     */
+    private static class SpaceTimeSearch {
+        private final IntIntHashMap slots = new IntIntHashMap();
+        private IntPriorityQueue open = new IntPriorityQueue(64);
+        private int[] states = new int[64];
+        private double[] g = new double[64];
+        private double[] h = new double[64];
+        private int[] parents = new int[64];
+        private boolean[] closed = new boolean[64];
+        private int count = 0;
+
+        private void reset() {
+            slots.clear();
+            open.clear();
+            count = 0;
+        }
+
+        private int find(int state) {
+            return slots.get(state);
+        }
+
+        private int slot(int state, double hValue, double gValue, int parent) {
+            if (count == states.length) {
+                int capacity = count * 2;
+                states = Arrays.copyOf(states, capacity);
+                g = Arrays.copyOf(g, capacity);
+                h = Arrays.copyOf(h, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                closed = Arrays.copyOf(closed, capacity);
+                open.ensureCapacity(capacity);
+            }
+            int slot = count++;
+            slots.put(state, slot);
+            states[slot] = state;
+            g[slot] = gValue;
+            h[slot] = hValue;
+            parents[slot] = parent;
+            closed[slot] = false;
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package Benchmark;
+
+import Algorithm.Clock;
+import Algorithm.Time;
+import DataStructures.graph.Graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the instances of an experiment concurrently on a bounded thread pool.
+ *
+ * An experiment is a sweep over maps, agent counts and a number of random instances of each. Every
+ * (map, agent count, instance) combination is an independent job, so the jobs are spread across a fixed number
+ * of threads. Results are collected as jobs finish; once all instances of a (map, agent count) pair are done they
+ * are averaged per time limit, the same way the serial experiments average them, and handed to a listener.
+ *
+ * Algorithms are judged against time limits, and concurrent jobs slow each other down when timed by the wall
+ * clock. Each job is given a time keeper backed by a fresh clock from the runner, so experiments can time jobs by
+ * the CPU time of their own thread ({@link Algorithm.ThreadCpuClock}) or by the number of time steps taken
+ * ({@link Algorithm.StepClock}) to keep results independent of the jobs running next to them. Jobs timed by
+ * thread CPU time should run their algorithm on the thread they are called on.
+ */
+public class ExperimentRunner {
+
+    /**
+     * One instance of an experiment.
+     */
+    public interface Job {
+
+        /**
+         * Generate a problem with the given number of agents on the graph, solve it and return the results.
+         * @param graph the graph of the map, shared with other jobs and must not be modified
+         * @param agentCount the number of agents in the problem
+         * @param time the time keeper the algorithm must be timed with
+         * @return the results of the instance, one per time limit
+         */
+        List<Result> run(Graph graph, int agentCount, Time time);
+    }
+
+    /**
+     * Receives the averaged results of every (map, agent count) pair as soon as all its instances have finished.
+     */
+    public interface Listener {
+        void finished(String map, int agentCount, List<Result> averaged);
+    }
+
+    private final int threads;
+    private final Supplier<Clock> clocks;
+
+    /**
+     * @param threads the number of jobs to run at once
+     * @param clocks creates the clock that times each job
+     */
+    public ExperimentRunner(int threads, Supplier<Clock> clocks) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1 but was " + threads);
+        }
+        this.threads = threads;
+        this.clocks = clocks;
+    }
+
+    /**
+     * Run every instance of an experiment and wait for all of them to finish.
+     * @param maps the paths of the maps to run on
+     * @param agentCounts the agent counts to run with on every map
+     * @param instances the number of instances of every (map, agent count) pair
+     * @param job the job run for every instance
+     * @param listener notified of the averaged results of each (map, agent count) pair as it completes
+     * @return the averaged results, by map and then by agent count
+     */
+    public Map<String, Map<Integer, List<Result>>> run(List<String> maps, List<Integer> agentCounts, int instances,
+                                                       Job job, Listener listener) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<Instance> completion = new ExecutorCompletionService<>(executor);
+
+        Map<String, Map<Integer, List<List<Result>>>> pending = new HashMap<>();
+        Map<String, Map<Integer, List<Result>>> averaged = new LinkedHashMap<>();
+
+        int submitted = 0;
+        try {
+            for (String map : maps) {
+                Graph graph = MapCache.get(map);
+                averaged.put(map, new TreeMap<>());
+                pending.put(map, new HashMap<>());
+
+                for (int agentCount : agentCounts) {
+                    pending.get(map).put(agentCount, new ArrayList<>());
+                    for (int i = 0; i < instances; i++) {
+                        completion.submit(() -> {
+                            Time time = new Time(clocks.get());
+                            return new Instance(map, agentCount, job.run(graph, agentCount, time));
+                        });
+                        submitted += 1;
+                    }
+                }
+            }
+
+            for (int i = 0; i < submitted; i++) {
+                Instance instance = completion.take().get();
+
+                List<List<Result>> done = pending.get(instance.map).get(instance.agentCount);
+                done.add(instance.results);
+
+                if (done.size() == instances) {
+                    List<Result> average = averageInstances(done);
+                    averaged.get(instance.map).put(instance.agentCount, average);
+                    pending.get(instance.map).remove(instance.agentCount);
+                    if (listener != null) {
+                        listener.finished(instance.map, instance.agentCount, average);
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for experiment instances", e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Experiment instance failed", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return averaged;
+    }
+
+    /**
+     * Group the results of several instances by time limit and average each group.
+     */
+    private static List<Result> averageInstances(List<List<Result>> instanceResults) {
+        Map<Integer, List<Result>> grouped =
+                instanceResults.stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.groupingBy(Result::getTimeLimit, TreeMap::new, Collectors.toList()));
+
+        List<Result> averaged = new ArrayList<>();
+        for (List<Result> instanceGroup : grouped.values()) {
+            averaged.add(Result.averageInstanceResults(instanceGroup));
+        }
+        return averaged;
+    }
+
+    private static class Instance {
+        private final String map;
+        private final int agentCount;
+        private final List<Result> results;
+
+        private Instance(String map, int agentCount, List<Result> results) {
+            this.map = map;
+            this.agentCount = agentCount;
+            this.results = results;
+        }
+    }
+}
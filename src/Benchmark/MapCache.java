@@ -0,0 +1,62 @@
+package Benchmark;
+
+import DataStructures.graph.Graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of graphs parsed from map files, keyed by the path of the map.
+ *
+ * Experiments run many instances on the same map. Parsing the map once and sharing the graph between those
+ * instances avoids re-reading the file for every instance. Graphs are never modified by a run, as each run keeps
+ * its agents' positions in its own {@link Algorithm.Occupancy}, so one graph can be used by several runs at once.
+ *
+ * Only the most recently used maps are kept, as graphs of the larger benchmark maps take tens of megabytes.
+ */
+public class MapCache {
+
+    /**
+     * The number of parsed maps kept in memory at once.
+     */
+    public static final int MAX_MAPS = 4;
+
+    private static final Map<String, Graph> graphs = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Graph> eldest) {
+            return size() > MAX_MAPS;
+        }
+    };
+
+    // Private constructor to restrict instantiation
+    private MapCache() {}
+
+    /**
+     * Return the graph of the map at the given path, parsing the map if it is not cached.
+     * @param path the path of the map file
+     * @return the graph described by the map file
+     */
+    public static synchronized Graph get(String path) {
+        Graph graph = graphs.get(path);
+        if (graph == null) {
+            graph = ProblemMap.graphFromMap(path);
+            graphs.put(path, graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Remove the graph of the map at the given path from the cache.
+     * @param path the path of the map file
+     */
+    public static synchronized void evict(String path) {
+        graphs.remove(path);
+    }
+
+    /**
+     * Remove every graph from the cache.
+     */
+    public static synchronized void clear() {
+        graphs.clear();
+    }
+}
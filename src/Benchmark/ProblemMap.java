@@ -1,12 +1,9 @@
 package Benchmark;
 
 import DataStructures.graph.Graph;
-import DataStructures.graph.Node;
+import DataStructures.graph.GridGraph;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Utility class to construct a graph object from a MAPF map file.
@@ -24,51 +21,7 @@ public class ProblemMap {
 
     public static Graph graphFromMap(String path) {
         try {
-            Graph graph = new Graph(false);
-
-            List<char[]> raw =  Files.lines(new File(path).toPath())
-                    .filter(line -> !line.startsWith("width") &&
-                            !line.startsWith("height") &&
-                            !line.startsWith("map") &&
-                            !line.startsWith("type"))
-                    .map(line -> line.replaceAll("\n", "").toCharArray())
-                    .collect(Collectors.toList());
-
-            List<List<Node>> structure = new ArrayList<>();
-            int x;
-            int y = 0;
-            for (char[] line : raw) {
-
-                List<Node> nodeLine = new ArrayList<>();
-                x = 0;
-
-                for (char character : line) {
-                    Node n;
-                    if (passableTerrains.containsKey(character)) {
-                        n = graph.addNode(String.valueOf(character), x, y);
-                    }
-                    else {
-                        n = null;
-                    }
-                    nodeLine.add(n);
-                    x += 1;
-                }
-
-                structure.add(nodeLine);
-                y += 1;
-            }
-
-            List<Node> lineAbove = null;
-            for (List<Node> line : structure) {
-                for (Node n : line) {
-                    if (n != null) {
-                        addEdges(graph, line, lineAbove, n.getX());
-                    }
-                }
-                lineAbove = line;
-            }
-
-            return graph;
+            return gridFromMap(path);
         }
         catch (FileNotFoundException e) {
             System.out.println(e);
@@ -81,24 +34,144 @@ public class ProblemMap {
         return null;
     }
 
-    private static void addEdges(Graph graph, List<Node> processedLine, List<Node> lineAbove, int x) {
-        Node n = processedLine.get(x);
-        if (n != null) {
-            if (x != 0 && processedLine.get(x - 1) != null) {
-                graph.addEdge(1, n, processedLine.get(x - 1));
+    /**
+     * Load a MovingAI .map file into a grid graph in a single pass.
+     *
+     * The header (type, height, width, map) is parsed first, then the block of cells is streamed byte by byte
+     * straight into the terrain array of the grid, without building a String or list per line.
+     * @param path the path of the map file
+     * @return the grid graph described by the file
+     * @throws IOException if the file can not be read or is not a well formed map
+     */
+    public static GridGraph gridFromMap(String path) throws IOException {
+        try (MapReader reader = new MapReader(new FileInputStream(path))) {
+            int width = -1;
+            int height = -1;
+
+            String key = reader.readWord();
+            while (!"map".equals(key)) {
+                if (key == null) {
+                    throw new IOException("Reached the end of " + path + " before the map block");
+                }
+                if (key.equals("height")) {
+                    height = reader.readInt();
+                }
+                else if (key.equals("width")) {
+                    width = reader.readInt();
+                }
+                reader.skipLine();
+                key = reader.readWord();
             }
-            if (lineAbove != null) {
-                if (lineAbove.get(x) != null) {
-                    graph.addEdge(1, n, lineAbove.get(x));
+            reader.skipLine();
+
+            if (width < 0 || height < 0) {
+                throw new IOException("The header of " + path + " does not give both a width and a height");
+            }
+
+            char[] terrain = new char[width * height];
+            int i = 0;
+            for (int y = 0; y < height; y++) {
+                int x = 0;
+                while (x < width) {
+                    int c = reader.read();
+                    if (c < 0 || c == '\n') {
+                        throw new IOException("Line " + y + " of the map block of " + path + " has " + x +
+                                " cells but the map is " + width + " cells wide");
+                    }
+                    if (c == '\r') {
+                        continue;
+                    }
+                    terrain[i++] = (char) c;
+                    x += 1;
                 }
-                if (x != 0 && lineAbove.get(x - 1) != null) {
-                    graph.addEdge(Math.sqrt(2), n, lineAbove.get(x - 1));
+                int c = reader.read();
+                while (c == '\r') {
+                    c = reader.read();
                 }
-                if (x != lineAbove.size() - 1 && lineAbove.get(x + 1) != null) {
-                    graph.addEdge(Math.sqrt(2), n, lineAbove.get(x + 1));
+                if (c >= 0 && c != '\n') {
+                    throw new IOException("Line " + y + " of the map block of " + path + " is longer than the map width " + width);
+                }
+            }
+
+            return new GridGraph(width, height, terrain, passableTerrains.keySet());
+        }
+    }
+
+    /**
+     * Minimal buffered reader over the bytes of a map file.
+     */
+    private static class MapReader implements Closeable {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position = 0;
+        private int limit = 0;
+
+        private MapReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Return the next byte of the file, or -1 at the end of the file.
+         */
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
                 }
             }
+            return buffer[position++] & 0xFF;
+        }
+
+        /**
+         * Skip whitespace and return the next word of the header, or null at the end of the file.
+         */
+        private String readWord() throws IOException {
+            int c = read();
+            while (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                c = read();
+            }
+            if (c < 0) {
+                return null;
+            }
+            StringBuilder word = new StringBuilder();
+            while (c > ' ') {
+                word.append((char) c);
+                c = read();
+            }
+            if (c == '\n') {
+                // Leave the line break for skipLine
+                position -= 1;
+            }
+            return word.toString();
+        }
+
+        private int readInt() throws IOException {
+            String word = readWord();
+            try {
+                return Integer.parseInt(word);
+            }
+            catch (NumberFormatException e) {
+                throw new IOException("Expected a number in the map header but found " + word);
+            }
+        }
+
+        /**
+         * Skip everything up to and including the next line break.
+         */
+        private void skipLine() throws IOException {
+            int c = read();
+            while (c >= 0 && c != '\n') {
+                c = read();
+            }
+        }
 
+        @Override
+        public void close() throws IOException {
+            in.close();
         }
     }
 
@@ -4,9 +4,10 @@ import DataStructures.graph.Graph;
 import DataStructures.graph.Node;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
 /**
@@ -31,49 +32,30 @@ public class ProblemSet {
      * @return the randomised problem set
      */
     public static ProblemSet randomProblemSet(Graph graph, int numAgents) {
+        return randomProblemSet(graph, numAgents, new Random());
+    }
+
+    /**
+     * Return a randomised problem set which is the same every time it is generated with the same seed on the same
+     * graph.
+     * @param seed the seed of the random number generator
+     */
+    public static ProblemSet randomProblemSet(Graph graph, int numAgents, long seed) {
+        return randomProblemSet(graph, numAgents, new Random(seed));
+    }
+
+    /**
+     * Return a problem set with start and target nodes drawn from the given random number generator.
+     * @param rand the source of randomness
+     */
+    public static ProblemSet randomProblemSet(Graph graph, int numAgents, Random rand) {
 
         if (numAgents > (graph.numNodes() / 2)) {
             throw new RuntimeException("Error: Not enough graph space to create agents");
         }
 
-        List<Node> s = new ArrayList<>();
-        List<Node> t = new ArrayList<>();
-
-        List<Node> nodes = new ArrayList<>(graph.nodes());
-
-        for (int i = 0; i < numAgents; i++) {
-            Random rand = new Random();
-
-            Node start = nodes.get(rand.nextInt(nodes.size()));
-
-            while (s.contains(start)) {
-                start = nodes.get(rand.nextInt(nodes.size()));
-            }
-
-            Node target = nodes.get(rand.nextInt(nodes.size()));
-
-            while (t.contains(target)) {
-                target = nodes.get(rand.nextInt(nodes.size()));
-            }
-
-            while (!graph.pathExists(start, target)) {
-                start = nodes.get(rand.nextInt(nodes.size()));
-
-                while (s.contains(start)) {
-                    start = nodes.get(rand.nextInt(nodes.size()));
-                }
-
-                target = nodes.get(rand.nextInt(nodes.size()));
-
-                while (t.contains(target)) {
-                    target = nodes.get(rand.nextInt(nodes.size()));
-                }
-            }
-
-            s.add(start);
-            t.add(target);
-        }
-        return new ProblemSet(graph, s, t);
+        List<Node> nodes = nodesInIndexOrder(graph, node -> true);
+        return sample(graph, numAgents, nodes, nodes, rand);
     }
 
     /**
@@ -83,57 +65,91 @@ public class ProblemSet {
      * @return the problem set
      */
     public static ProblemSet fromRegions(Graph graph, int numAgents, Region startingBox, Region targetsBox) {
+        return fromRegions(graph, numAgents, startingBox, targetsBox, new Random());
+    }
 
-        List<Node> s = new ArrayList<>(numAgents);
-        List<Node> t = new ArrayList<>(numAgents);
+    /**
+     * Create a problem set from regions which is the same every time it is generated with the same seed on the
+     * same graph.
+     * @param seed the seed of the random number generator
+     */
+    public static ProblemSet fromRegions(Graph graph, int numAgents, Region startingBox, Region targetsBox,
+                                         long seed) {
+        return fromRegions(graph, numAgents, startingBox, targetsBox, new Random(seed));
+    }
 
-        List<Node> possibleStarts = graph.nodes().stream()
-                .filter(startingBox::isWithin)
-                .collect(Collectors.toList());
+    /**
+     * Create a problem set from regions with start and target nodes drawn from the given random number generator.
+     * @param rand the source of randomness
+     */
+    public static ProblemSet fromRegions(Graph graph, int numAgents, Region startingBox, Region targetsBox,
+                                         Random rand) {
 
-        List<Node> possibleEnds = graph.nodes().stream()
-                .filter(targetsBox::isWithin)
-                .collect(Collectors.toList());
+        List<Node> possibleStarts = nodesInIndexOrder(graph, startingBox::isWithin);
+        List<Node> possibleEnds = nodesInIndexOrder(graph, targetsBox::isWithin);
 
         if (possibleStarts.size() < numAgents || possibleEnds.size() < numAgents) {
             throw new RuntimeException("Error: Not enough graph space to create agents");
         }
 
-        Random rand = new Random();
-        for (int i = 0; i < numAgents; i++) {
-
-            Node start = possibleStarts.get(rand.nextInt(possibleStarts.size()));
-
-            while (s.contains(start)) {
-                start = possibleStarts.get(rand.nextInt(possibleStarts.size()));
-            }
-
-            Node target = possibleEnds.get(rand.nextInt(possibleEnds.size()));
-
-            while (t.contains(target)) {
-                target = possibleEnds.get(rand.nextInt(possibleEnds.size()));
-            }
-
-            while (!graph.pathExists(start, target)) {
-                start = possibleStarts.get(rand.nextInt(possibleStarts.size()));
+        return sample(graph, numAgents, possibleStarts, possibleEnds, rand);
+    }
 
-                while (s.contains(start)) {
-                    start = possibleStarts.get(rand.nextInt(possibleStarts.size()));
-                }
+    /**
+     * Draw start, target pairs until every agent has one. Starts and targets are each unique, and every target is
+     * reachable from its start. Used nodes are kept in bit sets indexed by node index, and reachability is checked
+     * with the connected component index of the graph.
+     */
+    private static ProblemSet sample(Graph graph, int numAgents,
+                                     List<Node> possibleStarts, List<Node> possibleEnds, Random rand) {
 
-                target = possibleEnds.get(rand.nextInt(possibleEnds.size()));
+        List<Node> s = new ArrayList<>(numAgents);
+        List<Node> t = new ArrayList<>(numAgents);
 
-                while (t.contains(target)) {
-                    target = possibleEnds.get(rand.nextInt(possibleEnds.size()));
-                }
-            }
+        BitSet usedStarts = new BitSet(graph.indexBound());
+        BitSet usedTargets = new BitSet(graph.indexBound());
 
+        for (int i = 0; i < numAgents; i++) {
+            Node start;
+            Node target;
+            do {
+                start = draw(possibleStarts, usedStarts, rand);
+                target = draw(possibleEnds, usedTargets, rand);
+            } while (!graph.pathExists(start, target));
+
+            usedStarts.set(start.getIndex());
+            usedTargets.set(target.getIndex());
             s.add(start);
             t.add(target);
         }
         return new ProblemSet(graph, s, t);
     }
 
+    /**
+     * Draw nodes at random until one that has not been used is found.
+     */
+    private static Node draw(List<Node> nodes, BitSet used, Random rand) {
+        Node node = nodes.get(rand.nextInt(nodes.size()));
+        while (used.get(node.getIndex())) {
+            node = nodes.get(rand.nextInt(nodes.size()));
+        }
+        return node;
+    }
+
+    /**
+     * The nodes of the graph that satisfy the filter, in index order so the order does not depend on hashing.
+     */
+    private static List<Node> nodesInIndexOrder(Graph graph, Predicate<Node> filter) {
+        List<Node> nodes = new ArrayList<>(graph.numNodes());
+        for (int i = 0; i < graph.indexBound(); i++) {
+            Node node = graph.getNodeByIndex(i);
+            if (node != null && filter.test(node)) {
+                nodes.add(node);
+            }
+        }
+        return nodes;
+    }
+
     public static class Region {
         private final int x1;
         private final int y1;
@@ -0,0 +1,300 @@
+package DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of int elements in the range [0, capacity) which sorts elements into buckets of priorities
+ * instead of keeping a heap.
+ *
+ * Bucket b holds the elements whose priority lies in [b * width, (b + 1) * width). The queue keeps a circular
+ * window of buckets starting at the lowest bucket which may hold elements; elements whose bucket lies beyond the
+ * window wait in an overflow list until the window reaches them, and elements put below the window join its
+ * first bucket. Putting an element or changing its priority moves it between buckets in O(1). Taking the minimum
+ * scans forward to the first non-empty bucket and then through that bucket for its lowest priority, so the element
+ * returned is always exactly the one with the lowest priority. Of elements with equal priorities those put last
+ * tend to be taken first, so ties are broken differently from {@link IntPriorityQueue}.
+ *
+ * In an A* search with a consistent heuristic the f-costs taken from the open list never decrease, and every f-cost
+ * in the open list is within twice the largest edge cost of the lowest one. On a grid map, where edges cost 1 or
+ * sqrt(2), the open list therefore fits in a window a few units wide, and with narrow buckets each holds only a
+ * few elements, which makes this cheaper than a heap. Other priorities are still ordered correctly, just more
+ * slowly.
+ */
+public class BucketPriorityQueue implements OpenList {
+
+    public static final double DEFAULT_WIDTH = 1.0 / 64;
+    public static final int DEFAULT_BUCKETS = 512;
+
+    /**
+     * Buckets are clamped to this far either side of zero, so infinite priorities have a bucket and the window
+     * never overflows a long.
+     */
+    private static final long MAX_BUCKET = 1L << 60;
+
+    private final double inverseWidth;
+    private final int mask;
+
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+
+    /**
+     * The bucket at the start of the window. No element lies in a bucket below it.
+     */
+    private long first;
+
+    /**
+     * A lower bound on the priorities in one bucket, which is the lowest priority there whenever an element has
+     * exactly this priority. Searches often put many elements of equal priority, and these are then found without
+     * scanning the whole bucket.
+     */
+    private long minBucket = Long.MAX_VALUE;
+    private double minPriority;
+
+    private int[] overflow = new int[8];
+    private int overflowSize = 0;
+    private long overflowMin = Long.MAX_VALUE;
+
+    private int size = 0;
+
+    private double[] priorities;
+    private int[] slotOf;
+    private int[] stamps;
+    private int generation = 1;
+
+    public BucketPriorityQueue(int capacity) {
+        this(capacity, DEFAULT_WIDTH, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @param capacity the elements the queue can hold, see {@link #ensureCapacity(int)}
+     * @param width the range of priorities held by one bucket
+     * @param bucketCount the number of buckets in the window, which should cover the range of priorities in the
+     *                    queue at any one time; it is rounded up to a power of two
+     */
+    public BucketPriorityQueue(int capacity, double width, int bucketCount) {
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("Bucket width must be positive but was " + width);
+        }
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("There must be at least one bucket but there were " + bucketCount);
+        }
+        int windowSize = Integer.highestOneBit(bucketCount);
+        if (windowSize < bucketCount) {
+            windowSize <<= 1;
+        }
+        this.inverseWidth = 1 / width;
+        this.mask = windowSize - 1;
+        this.buckets = new int[windowSize][];
+        this.bucketSizes = new int[windowSize];
+        this.priorities = new double[capacity];
+        this.slotOf = new int[capacity];
+        this.stamps = new int[capacity];
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > priorities.length) {
+            priorities = Arrays.copyOf(priorities, capacity);
+            slotOf = Arrays.copyOf(slotOf, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+    }
+
+    @Override
+    public void put(int element, double priority) {
+        if (size == 0) {
+            first = bucket(priority);
+        }
+        stamps[element] = generation;
+        priorities[element] = priority;
+        add(element);
+        size += 1;
+    }
+
+    @Override
+    public void update(int element, double newPriority) {
+        remove(element);
+        priorities[element] = newPriority;
+        add(element);
+    }
+
+    @Override
+    public int get() {
+        int slot = findMin();
+        int min = buckets[index(first)][slot];
+        remove(min);
+        stamps[min] = 0;
+        size -= 1;
+        return min;
+    }
+
+    @Override
+    public int peek() {
+        int slot = findMin();
+        return buckets[index(first)][slot];
+    }
+
+    @Override
+    public double peekPriority() {
+        return priorities[peek()];
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return stamps[element] == generation;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every element from the queue. This takes time proportional to the number of buckets.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(bucketSizes, 0);
+        overflowSize = 0;
+        overflowMin = Long.MAX_VALUE;
+        minBucket = Long.MAX_VALUE;
+        size = 0;
+        generation += 1;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    // --------------------------------------------------------------------------------------------------------
+
+    private long bucket(double priority) {
+        double bucket = Math.floor(priority * inverseWidth);
+        return (long) Math.max(-MAX_BUCKET, Math.min(MAX_BUCKET, bucket));
+    }
+
+    private int index(long bucket) {
+        return (int) (bucket & mask);
+    }
+
+    /**
+     * Move the window forward to the first non-empty bucket and return the slot of its lowest priority. Elements
+     * waiting in the overflow list join the window as soon as their bucket falls within it, and the window jumps
+     * straight to the overflow list when it holds nothing itself.
+     */
+    private int findMin() {
+        while (true) {
+            if (size == overflowSize) {
+                first = overflowMin;
+            }
+            if (overflowMin < first + buckets.length) {
+                refill();
+            }
+            if (bucketSizes[index(first)] > 0) {
+                break;
+            }
+            first += 1;
+        }
+        int[] bucket = buckets[index(first)];
+        int count = bucketSizes[index(first)];
+        if (minBucket == first) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (priorities[bucket[i]] == minPriority) {
+                    return i;
+                }
+            }
+        }
+        // Scanning from the end takes the last put of equal priorities, as a stack would
+        int best = count - 1;
+        for (int i = count - 2; i >= 0; i--) {
+            if (priorities[bucket[i]] < priorities[bucket[best]]) {
+                best = i;
+            }
+        }
+        minBucket = first;
+        minPriority = priorities[bucket[best]];
+        return best;
+    }
+
+    /**
+     * Move the elements of the overflow list which now lie within the window into their buckets.
+     */
+    private void refill() {
+        int kept = 0;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < overflowSize; i++) {
+            int element = overflow[i];
+            long bucket = bucket(priorities[element]);
+            if (bucket < first + buckets.length) {
+                addToBucket(element, Math.max(bucket, first));
+            }
+            else {
+                overflow[kept] = element;
+                slotOf[element] = kept;
+                kept += 1;
+                min = Math.min(min, bucket);
+            }
+        }
+        overflowSize = kept;
+        overflowMin = min;
+    }
+
+    private void add(int element) {
+        long bucket = Math.max(bucket(priorities[element]), first);
+        if (bucket < first + buckets.length) {
+            addToBucket(element, bucket);
+            return;
+        }
+        if (overflowSize == overflow.length) {
+            overflow = Arrays.copyOf(overflow, overflowSize * 2);
+        }
+        overflow[overflowSize] = element;
+        slotOf[element] = overflowSize;
+        overflowSize += 1;
+        overflowMin = Math.min(overflowMin, bucket);
+    }
+
+    private void addToBucket(int element, long bucket) {
+        int index = index(bucket);
+        int[] elements = buckets[index];
+        int count = bucketSizes[index];
+        if (elements == null) {
+            elements = new int[8];
+            buckets[index] = elements;
+        }
+        else if (count == elements.length) {
+            elements = Arrays.copyOf(elements, count * 2);
+            buckets[index] = elements;
+        }
+        elements[count] = element;
+        bucketSizes[index] = count + 1;
+        slotOf[element] = count;
+        if (bucket == minBucket && priorities[element] < minPriority) {
+            minPriority = priorities[element];
+        }
+    }
+
+    /**
+     * Take an element out of its bucket, or the overflow list, by moving the last element there into its slot.
+     */
+    private void remove(int element) {
+        int slot = slotOf[element];
+        if (slot < overflowSize && overflow[slot] == element) {
+            int moved = overflow[--overflowSize];
+            overflow[slot] = moved;
+            slotOf[moved] = slot;
+            return;
+        }
+        // Elements below the window when they were added joined its first bucket, which is still the first
+        int index = index(Math.max(bucket(priorities[element]), first));
+        int last = --bucketSizes[index];
+        int moved = buckets[index][last];
+        buckets[index][slot] = moved;
+        slotOf[moved] = slot;
+    }
+}
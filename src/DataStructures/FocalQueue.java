@@ -0,0 +1,132 @@
+package DataStructures;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * The open and focal lists of a focal search, used for bounded-suboptimal searches such as ECBS.
+ *
+ * Every element has a lower bound on the cost of solutions through it and a cost. The open list orders elements by
+ * their lower bound, and the focal list holds the elements whose cost is within a factor w of the lowest lower bound
+ * in the open list, ordered by a secondary comparator. Elements are taken from the focal list, so the search is free
+ * to prefer elements by the secondary order while the cost of what it finds stays within w of the optimum. With
+ * w = 1 and costs equal to lower bounds this is an ordinary best-first queue with ties broken by the comparator.
+ *
+ * The focal bound is raised to w times the lowest lower bound each time an element is taken, and only grows while
+ * the queue holds elements, so elements must not be added with a lower bound below that of the last element taken,
+ * which holds for searches with a consistent heuristic. Once the queue is empty the bound starts again.
+ */
+public class FocalQueue<E> {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final double suboptimality;
+
+    private final TreeSet<Entry<E>> open;
+    private final java.util.PriorityQueue<Entry<E>> focal;
+    private final TreeSet<Entry<E>> outsideFocal;
+
+    private double bound = Double.NEGATIVE_INFINITY;
+    private long sequence = 0;
+
+    /**
+     * @param suboptimality the factor w by which the cost of elements taken may exceed the lowest lower bound,
+     *                      at least 1
+     * @param focalOrder the order in which elements within the bound are taken
+     */
+    public FocalQueue(double suboptimality, Comparator<E> focalOrder) {
+        if (suboptimality < 1) {
+            throw new IllegalArgumentException("Suboptimality must be at least 1 but was " + suboptimality);
+        }
+        this.suboptimality = suboptimality;
+
+        Comparator<Entry<E>> byLowerBound = Comparator.<Entry<E>>comparingDouble(e -> e.lowerBound)
+                .thenComparingLong(e -> e.sequence);
+        this.open = new TreeSet<>(byLowerBound);
+        this.outsideFocal = new TreeSet<>(Comparator.<Entry<E>>comparingDouble(e -> e.cost)
+                .thenComparingLong(e -> e.sequence));
+        this.focal = new java.util.PriorityQueue<>(
+                Comparator.<Entry<E>, E>comparing(e -> e.element, focalOrder)
+                        .thenComparingDouble(e -> e.cost)
+                        .thenComparingLong(e -> e.sequence));
+    }
+
+    /**
+     * Add an element whose cost is also the lower bound of solutions through it.
+     */
+    public void add(E element, double cost) {
+        add(element, cost, cost);
+    }
+
+    public void add(E element, double lowerBound, double cost) {
+        Entry<E> entry = new Entry<>(element, lowerBound, cost, sequence++);
+        open.add(entry);
+        if (cost <= bound + TOLERANCE) {
+            focal.add(entry);
+        }
+        else {
+            outsideFocal.add(entry);
+        }
+    }
+
+    /**
+     * Remove and return the first element of the focal list.
+     */
+    public E poll() {
+        raiseBound(open.first().lowerBound * suboptimality);
+        if (focal.isEmpty()) {
+            raiseBound(open.first().cost);
+        }
+        Entry<E> entry = focal.poll();
+        open.remove(entry);
+        if (open.isEmpty()) {
+            bound = Double.NEGATIVE_INFINITY;
+        }
+        else {
+            raiseBound(open.first().lowerBound * suboptimality);
+        }
+        return entry.element;
+    }
+
+    /**
+     * Returns the lowest lower bound of any element, a lower bound on the cost of the solution being searched for.
+     */
+    public double minLowerBound() {
+        return open.first().lowerBound;
+    }
+
+    public boolean isEmpty() {
+        return open.isEmpty();
+    }
+
+    public int size() {
+        return open.size();
+    }
+
+    /**
+     * Move the elements whose cost came within a higher bound into the focal list.
+     */
+    private void raiseBound(double newBound) {
+        if (newBound <= bound) {
+            return;
+        }
+        while (!outsideFocal.isEmpty() && outsideFocal.first().cost <= newBound + TOLERANCE) {
+            focal.add(outsideFocal.pollFirst());
+        }
+        bound = newBound;
+    }
+
+    private static class Entry<E> {
+        private final E element;
+        private final double lowerBound;
+        private final double cost;
+        private final long sequence;
+
+        private Entry(E element, double lowerBound, double cost, long sequence) {
+            this.element = element;
+            this.lowerBound = lowerBound;
+            this.cost = cost;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package DataStructures;
+
+import java.util.ArrayList;
+
+/**
+ * A binary min-heap whose elements record their own position in the backing array.
+ *
+ * Because every element knows where it is stored, {@link #remove(Indexed)} and {@link #update(Indexed)} do not
+ * have to search for the element and run in O(log n) rather than the O(n) of {@link Heap#remove(Comparable)}.
+ * An element can only be stored in one IndexedHeap at a time.
+ */
+public class IndexedHeap<E extends Comparable<E> & IndexedHeap.Indexed> {
+
+    /**
+     * An element that can be stored in an IndexedHeap.
+     */
+    public interface Indexed {
+
+        /**
+         * Returns the slot the heap last stored this element in, or -1 if it is not in a heap.
+         */
+        int getHeapIndex();
+
+        /**
+         * Record the slot the heap has stored this element in.
+         */
+        void setHeapIndex(int index);
+    }
+
+    private ArrayList<E> heap = new ArrayList<>();
+
+    /**
+     * Add the given object to the heap.
+     * @param object The object to add to the heap.
+     */
+    public void add(E object) {
+        heap.add(object);
+        object.setHeapIndex(heap.size() - 1);
+        bubbleUp(heap.size() - 1);
+    }
+
+    /**
+     * Remove the given object from the heap.
+     * @param object an object currently stored in the heap
+     */
+    public void remove(E object) {
+        int index = object.getHeapIndex();
+        if (index < 0 || index >= heap.size() || heap.get(index) != object) {
+            return;
+        }
+        int last = heap.size() - 1;
+        swap(index, last);
+        heap.remove(last);
+        object.setHeapIndex(-1);
+        if (index < last) {
+            restore(index);
+        }
+    }
+
+    /**
+     * Restore the order of the heap after the priority of the given object has changed.
+     * @param object an object currently stored in the heap whose priority has changed
+     */
+    public void update(E object) {
+        restore(object.getHeapIndex());
+    }
+
+    public E removeMin() {
+        int last = heap.size() - 1;
+        swap(0, last);
+        E item = heap.remove(last);
+        item.setHeapIndex(-1);
+        bubbleDown(0);
+        return item;
+    }
+
+    public E peek() {
+        return heap.get(0);
+    }
+
+    public boolean contains(E object) {
+        int index = object.getHeapIndex();
+        return index >= 0 && index < heap.size() && heap.get(index) == object;
+    }
+
+    public boolean isEmpty() {
+        return heap.size() == 0;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public void clear() {
+        for (E object : heap) {
+            object.setHeapIndex(-1);
+        }
+        heap.clear();
+    }
+
+    // --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Move the element at the given index up or down until the heap order property holds again.
+     */
+    private void restore(int index) {
+        if (index > 0 && heap.get(index).compareTo(heap.get(parent(index))) < 0) {
+            bubbleUp(index);
+        }
+        else {
+            bubbleDown(index);
+        }
+    }
+
+    /**
+     * Bubble up the element at the given index so that the heap maintains its order property.
+     * @param index The index of the element to bubble up.
+     */
+    private void bubbleUp(int index) {
+        E item = heap.get(index);
+        while (index > 0) {
+            int parentIndex = parent(index);
+            E parent = heap.get(parentIndex);
+            if (item.compareTo(parent) >= 0) {
+                break;
+            }
+            place(index, parent);
+            index = parentIndex;
+        }
+        place(index, item);
+    }
+
+    private void bubbleDown(int index) {
+        int size = heap.size();
+        if (index >= size) {
+            return;
+        }
+        E item = heap.get(index);
+        while (leftChild(index) < size) {
+            int smallestChild = leftChild(index);
+            int rightChildIndex = smallestChild + 1;
+            if (rightChildIndex < size && heap.get(smallestChild).compareTo(heap.get(rightChildIndex)) > 0) {
+                smallestChild = rightChildIndex;
+            }
+            E child = heap.get(smallestChild);
+            if (child.compareTo(item) >= 0) {
+                break;
+            }
+            place(index, child);
+            index = smallestChild;
+        }
+        place(index, item);
+    }
+
+    private int parent(int index) {
+        return (index - 1) / 2;
+    }
+
+    private int leftChild(int index) {
+        return (index * 2) + 1;
+    }
+
+    /**
+     * Store an element at the given index and record the index on the element.
+     */
+    private void place(int index, E object) {
+        heap.set(index, object);
+        object.setHeapIndex(index);
+    }
+
+    /**
+     * Swap elements at two indexes in the array.
+     * @param a An index in the array
+     * @param b A different index in the array
+     */
+    private void swap(int a, int b) {
+        E x = heap.get(a);
+        place(a, heap.get(b));
+        place(b, x);
+    }
+}
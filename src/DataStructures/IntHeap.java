@@ -0,0 +1,181 @@
+package DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of int elements in the range [0, capacity), such as node indexes, without the priorities. It is the
+ * shared part of {@link IntPriorityQueue} and {@link IntKeyPriorityQueue}, which each keep the priorities in a
+ * primitive array of their own type parallel to the heap, and compare and move them when asked.
+ *
+ * The heap position of each element is kept in an array indexed by the element, so changing a priority is O(log n)
+ * and {@link #contains(int)} is O(1). Positions are tagged with a generation stamp, so {@link #clear()} is O(1) and
+ * the heap can be reused across searches without allocating.
+ */
+public abstract class IntHeap {
+
+    private int[] elements = new int[64];
+    private int size = 0;
+
+    private int[] positions;
+    private int[] stamps;
+    private int generation = 1;
+
+    protected IntHeap(int capacity) {
+        this.positions = new int[capacity];
+        this.stamps = new int[capacity];
+    }
+
+    /**
+     * Make sure elements up to (but excluding) the given value can be stored in the queue.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            positions = Arrays.copyOf(positions, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+    }
+
+    /**
+     * Remove and return the element with the lowest priority.
+     */
+    public int get() {
+        int min = elements[0];
+        positions[min] = -1;
+        size -= 1;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Return the element with the lowest priority without removing it.
+     */
+    public int peek() {
+        return elements[0];
+    }
+
+    public boolean contains(int element) {
+        return stamps[element] == generation && positions[element] >= 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every element from the queue.
+     */
+    public void clear() {
+        size = 0;
+        generation += 1;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    // --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns whether the priority at one heap slot is lower than the priority at another.
+     */
+    protected abstract boolean less(int a, int b);
+
+    /**
+     * Exchange the priorities at two heap slots.
+     */
+    protected abstract void swapPriorities(int a, int b);
+
+    /**
+     * Copy the priority at one heap slot to another.
+     */
+    protected abstract void movePriority(int from, int to);
+
+    /**
+     * Grow the array of priorities to the given length.
+     */
+    protected abstract void growPriorities(int length);
+
+    /**
+     * Append an element at the end of the heap, whose priority the subclass then stores in the returned slot before
+     * calling {@link #siftUp(int)}.
+     * @return the heap slot of the element
+     */
+    protected int append(int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+            growPriorities(size * 2);
+        }
+        stamps[element] = generation;
+        elements[size] = element;
+        positions[element] = size;
+        return size++;
+    }
+
+    /**
+     * Returns the heap slot of an element in the queue.
+     */
+    protected int slotOf(int element) {
+        return positions[element];
+    }
+
+    /**
+     * Restore the heap order after the priority at a slot has changed.
+     */
+    protected void restore(int slot) {
+        if (slot > 0 && less(slot, (slot - 1) / 2)) {
+            siftUp(slot);
+        }
+        else {
+            siftDown(slot);
+        }
+    }
+
+    protected void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!less(slot, parent)) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        int child = (slot * 2) + 1;
+        while (child < size) {
+            if (child + 1 < size && less(child + 1, child)) {
+                child += 1;
+            }
+            if (!less(child, slot)) {
+                break;
+            }
+            swap(slot, child);
+            slot = child;
+            child = (slot * 2) + 1;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int element = elements[a];
+        elements[a] = elements[b];
+        elements[b] = element;
+        positions[elements[a]] = a;
+        positions[element] = b;
+        swapPriorities(a, b);
+    }
+
+    private void move(int from, int to) {
+        int element = elements[from];
+        elements[to] = element;
+        positions[element] = to;
+        movePriority(from, to);
+    }
+}
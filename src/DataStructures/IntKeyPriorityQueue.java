@@ -0,0 +1,64 @@
+package DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of int elements in the range [0, capacity), such as node indexes, with int priorities.
+ *
+ * It is {@link IntPriorityQueue} with integer keys, for searches in {@link DataStructures.graph.IntegerCosts}
+ * where priorities should compare exactly. Both keep the heap itself in {@link IntHeap}.
+ */
+public class IntKeyPriorityQueue extends IntHeap {
+
+    private int[] priorities = new int[64];
+
+    public IntKeyPriorityQueue(int capacity) {
+        super(capacity);
+    }
+
+    public void put(int element, int priority) {
+        int slot = append(element);
+        priorities[slot] = priority;
+        siftUp(slot);
+    }
+
+    /**
+     * Change the priority of an element already in the queue.
+     */
+    public void update(int element, int newPriority) {
+        int slot = slotOf(element);
+        priorities[slot] = newPriority;
+        restore(slot);
+    }
+
+    /**
+     * Return the lowest priority in the queue.
+     */
+    public int peekPriority() {
+        return priorities[0];
+    }
+
+    // --------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected boolean less(int a, int b) {
+        return priorities[a] < priorities[b];
+    }
+
+    @Override
+    protected void swapPriorities(int a, int b) {
+        int priority = priorities[a];
+        priorities[a] = priorities[b];
+        priorities[b] = priority;
+    }
+
+    @Override
+    protected void movePriority(int from, int to) {
+        priorities[to] = priorities[from];
+    }
+
+    @Override
+    protected void growPriorities(int length) {
+        priorities = Arrays.copyOf(priorities, length);
+    }
+}
@@ -0,0 +1,68 @@
+package DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of int elements in the range [0, capacity), such as node indexes, with double priorities.
+ *
+ * It mirrors the interface of {@link PriorityQueue} but stores everything in primitive arrays, with the heap itself
+ * kept by {@link IntHeap}, so {@link #update(int, double)} is O(log n), {@link #contains(int)} is O(1) and the
+ * queue can be cleared in O(1) and reused across searches without allocating.
+ */
+public class IntPriorityQueue extends IntHeap implements OpenList {
+
+    private double[] priorities = new double[64];
+
+    public IntPriorityQueue(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public void put(int element, double priority) {
+        int slot = append(element);
+        priorities[slot] = priority;
+        siftUp(slot);
+    }
+
+    /**
+     * Change the priority of an element already in the queue.
+     */
+    @Override
+    public void update(int element, double newPriority) {
+        int slot = slotOf(element);
+        priorities[slot] = newPriority;
+        restore(slot);
+    }
+
+    /**
+     * Return the lowest priority in the queue.
+     */
+    @Override
+    public double peekPriority() {
+        return priorities[0];
+    }
+
+    // --------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected boolean less(int a, int b) {
+        return priorities[a] < priorities[b];
+    }
+
+    @Override
+    protected void swapPriorities(int a, int b) {
+        double priority = priorities[a];
+        priorities[a] = priorities[b];
+        priorities[b] = priority;
+    }
+
+    @Override
+    protected void movePriority(int from, int to) {
+        priorities[to] = priorities[from];
+    }
+
+    @Override
+    protected void growPriorities(int length) {
+        priorities = Arrays.copyOf(priorities, length);
+    }
+}
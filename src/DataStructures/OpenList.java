@@ -0,0 +1,49 @@
+package DataStructures;
+
+/**
+ * The open list of a search over node indexes: a priority queue of int elements in the range [0, capacity) with
+ * double priorities, which can be cleared and reused across searches.
+ *
+ * {@link IntPriorityQueue} is a binary heap and suits any priorities. {@link BucketPriorityQueue} suits searches
+ * whose priorities fall into a narrow band, such as A* on a grid map.
+ */
+public interface OpenList {
+
+    /**
+     * Make sure elements up to (but excluding) the given value can be stored in the queue.
+     */
+    void ensureCapacity(int capacity);
+
+    void put(int element, double priority);
+
+    /**
+     * Change the priority of an element already in the queue.
+     */
+    void update(int element, double newPriority);
+
+    /**
+     * Remove and return the element with the lowest priority.
+     */
+    int get();
+
+    /**
+     * Return the element with the lowest priority without removing it.
+     */
+    int peek();
+
+    /**
+     * Return the lowest priority in the queue.
+     */
+    double peekPriority();
+
+    boolean contains(int element);
+
+    boolean isEmpty();
+
+    int size();
+
+    /**
+     * Remove every element from the queue.
+     */
+    void clear();
+}
@@ -5,7 +5,7 @@ import java.util.Map;
 
 public class PriorityQueue<E> {
 
-    Heap<Entry> heap = new Heap<Entry>();
+    IndexedHeap<Entry> heap = new IndexedHeap<Entry>();
     Map<E, Entry> entries = new HashMap<>();
 
     public void put(E object, double priority) {
@@ -14,10 +14,14 @@ public class PriorityQueue<E> {
         heap.add(newEntry);
     }
 
+    /**
+     * Change the priority of an object already in the queue. This is O(log n) as the entry knows its
+     * position in the heap.
+     */
     public void update(E object, double newPriority) {
-        heap.remove(entries.get(object));
-        entries.remove(object);
-        put(object, newPriority);
+        Entry entry = entries.get(object);
+        entry.priority = newPriority;
+        heap.update(entry);
     };
 
     public E get() {
@@ -38,9 +42,10 @@ public class PriorityQueue<E> {
         return entries.containsKey(object);
     }
 
-    private class Entry implements Comparable<Entry>{
+    private class Entry implements Comparable<Entry>, IndexedHeap.Indexed {
         private E element;
         private double priority;
+        private int heapIndex = -1;
 
         private Entry(E element, double priority) {
             this.element = element;
@@ -55,7 +60,17 @@ public class PriorityQueue<E> {
         }
 
         public int compareTo(Entry o) {
-            return (int)(this.priority - o.getPriority());
+            return Double.compare(this.priority, o.getPriority());
+        }
+
+        @Override
+        public int getHeapIndex() {
+            return heapIndex;
+        }
+
+        @Override
+        public void setHeapIndex(int index) {
+            this.heapIndex = index;
         }
 
     }
@@ -0,0 +1,179 @@
+package DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * A space-time reservation table, recording which agent has claimed each node at each time step.
+ *
+ * A (node, time step) pair is packed into a single long key, and keys and the ids of the agents holding them are
+ * kept in primitive arrays with open addressing and linear probing. This avoids boxing a key object for every
+ * lookup, which matters as a cooperative search checks a reservation for every state it generates.
+ */
+public class ReservationTable {
+
+    /**
+     * Returned by {@link #get(int, int)} for (node, time step) pairs nobody has reserved.
+     */
+    public static final int NONE = -1;
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] agents;
+    private int mask;
+    private int size = 0;
+
+    public ReservationTable() {
+        this(1024);
+    }
+
+    /**
+     * @param expected the number of reservations expected, so the table does not need to grow until then
+     */
+    public ReservationTable(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the id of the agent holding a node at a time step, or {@link #NONE} if it is free.
+     * @param node the index of the node
+     * @param timeStep the time step
+     */
+    public int get(int node, int timeStep) {
+        int slot = find(key(node, timeStep));
+        return slot < 0 ? NONE : agents[slot];
+    }
+
+    /**
+     * Returns whether a node is held at a time step by any agent other than the given one.
+     */
+    public boolean isReservedByOther(int node, int timeStep, int agent) {
+        int holder = get(node, timeStep);
+        return holder != NONE && holder != agent;
+    }
+
+    /**
+     * Returns whether moving between two nodes from one time step to the next would swap places with another
+     * agent, which is moving between the same nodes in the opposite direction.
+     * @param from the index of the node moved from
+     * @param to the index of the node moved to
+     * @param timeStep the time step the move starts at
+     * @param agent the id of the moving agent
+     */
+    public boolean isSwap(int from, int to, int timeStep, int agent) {
+        if (from == to) {
+            return false;
+        }
+        int other = get(to, timeStep);
+        return other != NONE && other != agent && get(from, timeStep + 1) == other;
+    }
+
+    /**
+     * Reserve a node at a time step for an agent.
+     * @return true if the node was reserved, false if another agent already holds it
+     */
+    public boolean reserve(int node, int timeStep, int agent) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        long key = key(node, timeStep);
+        int slot = home(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return agents[slot] == agent;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        agents[slot] = agent;
+        size += 1;
+        return true;
+    }
+
+    /**
+     * Release a reservation, if it is held by the given agent.
+     */
+    public void release(int node, int timeStep, int agent) {
+        int slot = find(key(node, timeStep));
+        if (slot >= 0 && agents[slot] == agent) {
+            remove(slot);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private static long key(int node, int timeStep) {
+        return ((long) timeStep << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    private int home(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int find(long key) {
+        int slot = home(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empty a slot, moving later entries of its probe run back so that none is left behind the gap.
+     */
+    private void remove(int slot) {
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                agents[hole] = agents[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        size -= 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        agents = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldAgents = agents;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = home(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                agents[slot] = oldAgents[i];
+            }
+        }
+    }
+}
@@ -2,9 +2,9 @@ package DataStructures.graph;
 
 public class Edge implements Comparable<Edge>{
 
-    private double weight;
-    private Node a;
-    private Node b;
+    private final double weight;
+    private final Node a;
+    private final Node b;
 
     public Edge(Node a, Node b, double weight) {
         this.a = a;
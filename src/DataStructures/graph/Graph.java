@@ -11,6 +11,12 @@ public class Graph {
 
     private Map<Integer, Map<Integer, Node>> pointMapping = new HashMap<>();
 
+    private List<Node> indexMapping = new ArrayList<>();
+
+    private volatile int[] components;
+
+    private volatile Adjacency adjacency;
+
     public Graph(boolean directed) {
         this.directed = directed;
     }
@@ -35,6 +41,10 @@ public class Graph {
         return hstr + vstr + estr;
     }
 
+    public boolean isDirected() {
+        return directed;
+    }
+
     public Set<Node> nodes() {
         return this.structure.keySet();
     }
@@ -77,6 +87,24 @@ public class Graph {
         return this.pointMapping.get(x).get(y);
     }
 
+    /**
+     * Return the node which was assigned the given index, or null if no node holds that index.
+     * @param index an index in the range [0, {@link #indexBound()})
+     * @return the node with the given index
+     */
+    public Node getNodeByIndex(int index) {
+        return this.indexMapping.get(index);
+    }
+
+    /**
+     * Returns an exclusive upper bound on the indexes of nodes in this graph. Arrays of this length can be
+     * indexed by {@link Node#getIndex()}.
+     * @return the upper bound of node indexes
+     */
+    public int indexBound() {
+        return this.indexMapping.size();
+    }
+
     public Edge getEdge(Node a, Node b) {
         return this.structure.get(a).get(b);
     }
@@ -95,12 +123,15 @@ public class Graph {
     // ------------------------------------------------------------
 
     public Node addNode(String label, int x, int y) {
-        Node node = new Node(label, x, y);
+        Node node = new Node(label, x, y, this.indexMapping.size());
+        this.indexMapping.add(node);
         this.structure.put(node, new HashMap<Node, Edge>());
         if (!this.pointMapping.containsKey(x)) {
             this.pointMapping.put(x, new HashMap<>());
         }
         this.pointMapping.get(x).put(y, node);
+        this.components = null;
+        this.adjacency = null;
         return node;
     }
 
@@ -111,6 +142,8 @@ public class Graph {
         if (!directed) {
             this.structure.get(b).put(a, edge);
         }
+        this.components = null;
+        this.adjacency = null;
         return edge;
     }
 
@@ -124,6 +157,9 @@ public class Graph {
         }
 
         this.structure.remove(node);
+        this.indexMapping.set(node.getIndex(), null);
+        this.components = null;
+        this.adjacency = null;
     }
 
     public void removeEdge(Edge edge) {
@@ -132,6 +168,8 @@ public class Graph {
 
         this.structure.get(a).remove(b);
         this.structure.get(b).remove(a);
+        this.components = null;
+        this.adjacency = null;
     }
 
     // ------------------------------------------------------------
@@ -140,6 +178,104 @@ public class Graph {
         return this.structure.get(n).keySet();
     }
 
+    /**
+     * Create a cursor over the neighbours of nodes of this graph, for searches which visit many nodes and should
+     * not allocate for each of them. See {@link NeighbourCursor}.
+     * @return a new cursor, which the caller owns
+     */
+    public NeighbourCursor neighbourCursor() {
+        return new AdjacencyCursor();
+    }
+
+    /**
+     * The neighbours and edge weights of every node in flat arrays. They are copied from the nested maps the
+     * first time a cursor needs them and kept until the graph is modified.
+     */
+    private Adjacency adjacency() {
+        Adjacency current = this.adjacency;
+        if (current == null) {
+            current = new Adjacency();
+            this.adjacency = current;
+        }
+        return current;
+    }
+
+    /**
+     * Adjacency in compressed rows: the neighbours of node i are targets[offsets[i]] up to
+     * targets[offsets[i + 1]], in the iteration order of {@link #getNeigbours(Node)}.
+     */
+    private class Adjacency {
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final int[] integerWeights;
+
+        private Adjacency() {
+            int bound = indexBound();
+            offsets = new int[bound + 1];
+            int size = 0;
+            for (int i = 0; i < bound; i++) {
+                offsets[i] = size;
+                Node node = getNodeByIndex(i);
+                if (node != null) {
+                    size += structure.get(node).size();
+                }
+            }
+            offsets[bound] = size;
+
+            targets = new int[size];
+            weights = new double[size];
+            integerWeights = new int[size];
+            for (int i = 0; i < bound; i++) {
+                Node node = getNodeByIndex(i);
+                if (node == null) {
+                    continue;
+                }
+                int slot = offsets[i];
+                for (Map.Entry<Node, Edge> entry : structure.get(node).entrySet()) {
+                    targets[slot] = entry.getKey().getIndex();
+                    weights[slot] = entry.getValue().getWeight();
+                    integerWeights[slot] = IntegerCosts.weight(weights[slot]);
+                    slot += 1;
+                }
+            }
+        }
+    }
+
+    private class AdjacencyCursor implements NeighbourCursor {
+        private Adjacency rows;
+        private int slot;
+        private int end;
+
+        @Override
+        public void reset(int node) {
+            rows = adjacency();
+            slot = rows.offsets[node] - 1;
+            end = rows.offsets[node + 1];
+        }
+
+        @Override
+        public boolean next() {
+            slot += 1;
+            return slot < end;
+        }
+
+        @Override
+        public int index() {
+            return rows.targets[slot];
+        }
+
+        @Override
+        public double cost() {
+            return rows.weights[slot];
+        }
+
+        @Override
+        public int integerCost() {
+            return rows.integerWeights[slot];
+        }
+    }
+
     // ------------------------------------------------------------
 
     public ArrayList<Node> leastCost(Node start, String goal) {
@@ -150,6 +286,8 @@ public class Graph {
         Map<Node, Node> parents = new HashMap<>();
         parents.put(start, null);
 
+        NeighbourCursor neighbours = neighbourCursor();
+
         open.put(start, 0);
         while (!open.isEmpty()) {
             Node n = open.get();
@@ -158,11 +296,13 @@ public class Graph {
                 return buildPath(closed, n);
             }
 
-            for (Node neighbour : getNeigbours(n)) {
+            neighbours.reset(n.getIndex());
+            while (neighbours.next()) {
+                Node neighbour = getNodeByIndex(neighbours.index());
                 if (!closed.containsKey(neighbour)) {
 
                     // New cost of the node
-                    double currentPathCost = costs.get(n) + getEdge(n, neighbour).getWeight();
+                    double currentPathCost = costs.get(n) + neighbours.cost();
                     // current cost on record, maybe we dont have one because this is the first time we have come across the node
                     double pathCostOnRecord;
 
@@ -219,6 +359,13 @@ public class Graph {
      * @return true if a path exists, false otherwise.
      */
     public boolean pathExists(Node a, Node b) {
+        if (!sameComponent(a, b)) {
+            return false;
+        }
+        if (!directed) {
+            return true;
+        }
+
         PriorityQueue<Node> open = new PriorityQueue<>();
         Set<Node> closed = new HashSet<>();
 
@@ -245,4 +392,88 @@ public class Graph {
 
         return false;
     }
+
+    // ------------------------------------------------------------
+
+    /**
+     * Returns whether two nodes lie in the same connected component of the graph. In an undirected graph this is
+     * exactly whether a path exists between them. In a directed graph edges are treated as undirected, so nodes in
+     * different components are never connected but nodes in the same one may not be.
+     */
+    public boolean sameComponent(Node a, Node b) {
+        int[] labels = componentLabels();
+        return labels[a.getIndex()] == labels[b.getIndex()];
+    }
+
+    /**
+     * Returns the connected component label of a node. Labels are numbered from 0 in order of the lowest node
+     * index in each component.
+     */
+    public int component(Node node) {
+        return componentLabels()[node.getIndex()];
+    }
+
+    /**
+     * The component label of every node, indexed by node index. The labels are found with a breadth first flood
+     * fill the first time they are needed and kept until the graph is modified.
+     */
+    private int[] componentLabels() {
+        int[] labels = this.components;
+        if (labels == null) {
+            labels = labelComponents();
+            this.components = labels;
+        }
+        return labels;
+    }
+
+    private int[] labelComponents() {
+        int bound = indexBound();
+        int[] labels = new int[bound];
+        Arrays.fill(labels, -1);
+        int[] queue = new int[bound];
+
+        // In a directed graph edges are also followed backwards, from each node to its predecessors
+        List<List<Node>> predecessors = null;
+        if (directed) {
+            predecessors = new ArrayList<>(bound);
+            for (int i = 0; i < bound; i++) {
+                predecessors.add(new ArrayList<>());
+            }
+            for (Node node : nodes()) {
+                for (Node neighbour : getNeigbours(node)) {
+                    predecessors.get(neighbour.getIndex()).add(node);
+                }
+            }
+        }
+
+        int label = 0;
+        for (int i = 0; i < bound; i++) {
+            if (labels[i] != -1 || getNodeByIndex(i) == null) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            labels[i] = label;
+            queue[tail++] = i;
+            while (head < tail) {
+                Node node = getNodeByIndex(queue[head++]);
+                for (Node neighbour : getNeigbours(node)) {
+                    if (labels[neighbour.getIndex()] == -1) {
+                        labels[neighbour.getIndex()] = label;
+                        queue[tail++] = neighbour.getIndex();
+                    }
+                }
+                if (predecessors != null) {
+                    for (Node predecessor : predecessors.get(node.getIndex())) {
+                        if (labels[predecessor.getIndex()] == -1) {
+                            labels[predecessor.getIndex()] = label;
+                            queue[tail++] = predecessor.getIndex();
+                        }
+                    }
+                }
+            }
+            label += 1;
+        }
+        return labels;
+    }
 }
@@ -0,0 +1,416 @@
+package DataStructures.graph;
+
+import java.util.*;
+
+/**
+ * A graph over an 8-connected grid, stored in flat arrays rather than nested hash maps.
+ *
+ * Every cell of a width*height grid has index y*width+x. Passable cells hold a Node, blocked cells hold null.
+ * Adjacency is encoded as an 8-bit neighbour mask per cell, one bit per direction, so looking up the neighbours of
+ * a node or the edge between two nodes needs no hashing. Edge objects are only created when they are first asked
+ * for. Cardinal edges have weight 1 and diagonal edges have weight sqrt(2).
+ *
+ * The topology is fixed when the graph is constructed, so nodes and edges can not be added or removed.
+ */
+public class GridGraph extends Graph {
+
+    /**
+     * Direction offsets, in the order N, NE, E, SE, S, SW, W, NW. Direction d and (d + 4) % 8 are opposites.
+     */
+    private static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    private static final double DIAGONAL = Math.sqrt(2);
+
+    private final int width;
+    private final int height;
+
+    private final Node[] cells;
+    private final byte[] neighbourMasks;
+
+    /**
+     * Lazily created edges. Each cell owns the edges in the N, NE, E and SE directions, the remaining four
+     * directions are owned by the neighbouring cell.
+     */
+    private final Edge[] edges;
+
+    private final int numNodes;
+    private final Set<Node> nodeView;
+
+    /**
+     * Construct a grid graph from a row-major block of terrain characters.
+     * @param width the width of the grid
+     * @param height the height of the grid
+     * @param terrain the terrain character of every cell, indexed by y*width+x
+     * @param passableTerrain the terrain characters which agents can move through
+     */
+    public GridGraph(int width, int height, char[] terrain, Set<Character> passableTerrain) {
+        super(false);
+        if (terrain.length != width * height) {
+            throw new IllegalArgumentException("Expected " + (width * height) + " cells but got " + terrain.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = new Node[width * height];
+        this.neighbourMasks = new byte[width * height];
+        this.edges = new Edge[width * height * 4];
+
+        Map<Character, String> labels = new HashMap<>();
+        int count = 0;
+        for (int i = 0; i < cells.length; i++) {
+            char c = terrain[i];
+            if (passableTerrain.contains(c)) {
+                String label = labels.computeIfAbsent(c, String::valueOf);
+                cells[i] = new Node(label, i % width, i / width, i);
+                count += 1;
+            }
+        }
+        this.numNodes = count;
+
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == null) {
+                continue;
+            }
+            int x = i % width;
+            int y = i / width;
+            int mask = 0;
+            for (int d = 0; d < 8; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (inBounds(nx, ny) && cells[ny * width + nx] != null) {
+                    mask |= 1 << d;
+                }
+            }
+            neighbourMasks[i] = (byte) mask;
+        }
+
+        this.nodeView = new NodeView();
+    }
+
+    // ------------------------------------------------------------
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Return whether the cell at the given coordinates exists and can be moved through.
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return true if the cell is passable, false otherwise
+     */
+    public boolean isPassable(int x, int y) {
+        return inBounds(x, y) && cells[y * width + x] != null;
+    }
+
+    /**
+     * Return the 8-bit neighbour mask of a node. Bit d is set if the neighbour in direction d exists, where
+     * directions are ordered N, NE, E, SE, S, SW, W, NW.
+     * @param node the node to get the mask of
+     * @return the neighbour mask of the node
+     */
+    public int neighbourMask(Node node) {
+        return neighbourMasks[node.getIndex()] & 0xFF;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    // ------------------------------------------------------------
+
+    @Override
+    public Set<Node> nodes() {
+        return nodeView;
+    }
+
+    @Override
+    public Set<Edge> edges() {
+        Set<Edge> edges = new HashSet<>();
+        for (Node node : cells) {
+            if (node != null) {
+                edges.addAll(getEdges(node));
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public int numNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public int numEdges() {
+        int degrees = 0;
+        for (byte mask : neighbourMasks) {
+            degrees += Integer.bitCount(mask & 0xFF);
+        }
+        return degrees / 2;
+    }
+
+    // ------------------------------------------------------------
+
+    @Override
+    public Node getNodeByCoords(int x, int y) {
+        if (!inBounds(x, y)) {
+            return null;
+        }
+        return cells[y * width + x];
+    }
+
+    @Override
+    public Node getNodeByIndex(int index) {
+        return cells[index];
+    }
+
+    @Override
+    public int indexBound() {
+        return cells.length;
+    }
+
+    @Override
+    public Edge getEdge(Node a, Node b) {
+        int d = direction(a, b);
+        if (d < 0 || (neighbourMasks[a.getIndex()] & (1 << d)) == 0) {
+            return null;
+        }
+        return edge(a.getIndex(), d);
+    }
+
+    /**
+     * Return the edge leaving the given cell in the given direction, creating it if it has not been used before.
+     * Creation is not synchronised; two threads racing on the same edge may each create an equal edge, which is
+     * harmless because edges are immutable.
+     */
+    private Edge edge(int index, int d) {
+        int owner = index;
+        int ownerDirection = d;
+        if (d >= 4) {
+            owner = index + DY[d] * width + DX[d];
+            ownerDirection = d - 4;
+        }
+        int slot = owner * 4 + ownerDirection;
+        Edge edge = edges[slot];
+        if (edge == null) {
+            Node a = cells[owner];
+            Node b = cells[owner + DY[ownerDirection] * width + DX[ownerDirection]];
+            edge = new Edge(a, b, (ownerDirection & 1) == 1 ? DIAGONAL : 1);
+            edges[slot] = edge;
+        }
+        return edge;
+    }
+
+    /**
+     * Return the direction from node a to node b, or -1 if b is not within one step of a.
+     */
+    private static int direction(Node a, Node b) {
+        int dx = b.getX() - a.getX();
+        int dy = b.getY() - a.getY();
+        for (int d = 0; d < 8; d++) {
+            if (DX[d] == dx && DY[d] == dy) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    // ------------------------------------------------------------
+
+    @Override
+    public int degree(Node node) {
+        return Integer.bitCount(neighbourMasks[node.getIndex()] & 0xFF);
+    }
+
+    @Override
+    public Set<Edge> getEdges(Node node) {
+        Set<Edge> edges = new HashSet<>();
+        int index = node.getIndex();
+        int mask = neighbourMasks[index] & 0xFF;
+        for (int d = 0; d < 8; d++) {
+            if ((mask & (1 << d)) != 0) {
+                edges.add(edge(index, d));
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public Set<Node> getNeigbours(Node n) {
+        return new NeighbourView(n.getIndex());
+    }
+
+    @Override
+    public NeighbourCursor neighbourCursor() {
+        return new MaskCursor();
+    }
+
+    // ------------------------------------------------------------
+
+    @Override
+    public Node addNode(String label, int x, int y) {
+        throw new UnsupportedOperationException("The topology of a GridGraph is fixed at construction");
+    }
+
+    @Override
+    public Edge addEdge(double weight, Node a, Node b) {
+        throw new UnsupportedOperationException("The topology of a GridGraph is fixed at construction");
+    }
+
+    @Override
+    public void removeNode(Node node) {
+        throw new UnsupportedOperationException("The topology of a GridGraph is fixed at construction");
+    }
+
+    @Override
+    public void removeEdge(Edge edge) {
+        throw new UnsupportedOperationException("The topology of a GridGraph is fixed at construction");
+    }
+
+    // ------------------------------------------------------------
+
+    /**
+     * Read-only view of every passable cell, in index order.
+     */
+    private class NodeView extends AbstractSet<Node> {
+
+        @Override
+        public Iterator<Node> iterator() {
+            return new Iterator<Node>() {
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    while (from < cells.length && cells[from] == null) {
+                        from += 1;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < cells.length;
+                }
+
+                @Override
+                public Node next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Node node = cells[next];
+                    next = advance(next + 1);
+                    return node;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return numNodes;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            int index = ((Node) o).getIndex();
+            return index >= 0 && index < cells.length && cells[index] == o;
+        }
+    }
+
+    /**
+     * Cursor over the neighbours of one cell at a time, which walks the bits of its neighbour mask in the same
+     * order as {@link NeighbourView}.
+     */
+    private class MaskCursor implements NeighbourCursor {
+        private int cell;
+        private int remaining;
+        private int direction;
+
+        @Override
+        public void reset(int node) {
+            cell = node;
+            remaining = neighbourMasks[node] & 0xFF;
+        }
+
+        @Override
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            direction = Integer.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            return true;
+        }
+
+        @Override
+        public int index() {
+            return cell + DY[direction] * width + DX[direction];
+        }
+
+        @Override
+        public double cost() {
+            return (direction & 1) == 1 ? DIAGONAL : 1;
+        }
+
+        @Override
+        public int integerCost() {
+            return (direction & 1) == 1 ? IntegerCosts.DIAGONAL : IntegerCosts.CARDINAL;
+        }
+    }
+
+    /**
+     * Read-only view of the neighbours of one cell, backed by its neighbour mask.
+     */
+    private class NeighbourView extends AbstractSet<Node> {
+
+        private final int index;
+        private final int mask;
+
+        private NeighbourView(int index) {
+            this.index = index;
+            this.mask = neighbourMasks[index] & 0xFF;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            return new Iterator<Node>() {
+                private int remaining = mask;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining != 0;
+                }
+
+                @Override
+                public Node next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int d = Integer.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    return cells[index + DY[d] * width + DX[d]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(mask);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            int d = direction(cells[index], other);
+            return d >= 0 && (mask & (1 << d)) != 0 && cells[other.getIndex()] == other;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package DataStructures.graph;
+
+/**
+ * Edge weights and distances scaled to integers, for searches whose costs should be added and compared exactly.
+ *
+ * A cardinal step costs {@link #CARDINAL} and a diagonal step {@link #DIAGONAL}, which is sqrt(2) times as much to
+ * within 0.02%. Every path cost is then an exact sum of integers, so two paths of equal length always have equal
+ * costs and ties in the open list are broken the same way whatever order the steps were taken in.
+ *
+ * Costs are ints, so a path may take up to about 1.5 million diagonal steps before its cost overflows.
+ */
+public final class IntegerCosts {
+
+    public static final int CARDINAL = 1000;
+    public static final int DIAGONAL = 1414;
+
+    /**
+     * Slightly less than {@link #CARDINAL}, such that sqrt(2) scales to exactly {@link #DIAGONAL}.
+     */
+    private static final double ESTIMATE_SCALE = DIAGONAL / Math.sqrt(2);
+
+    private IntegerCosts() {
+    }
+
+    /**
+     * Scale an edge weight, rounding to the nearest integer. Weights of 1 and sqrt(2) scale to exactly
+     * {@link #CARDINAL} and {@link #DIAGONAL}.
+     */
+    public static int weight(double weight) {
+        return (int) Math.round(weight * CARDINAL);
+    }
+
+    /**
+     * Returns the octile distance between two nodes in scaled costs, computed without floating point.
+     */
+    public static int octile(Node a, Node b) {
+        int dx = Math.abs(a.getX() - b.getX());
+        int dy = Math.abs(a.getY() - b.getY());
+        int diagonal = Math.min(dx, dy);
+        return CARDINAL * (dx + dy - 2 * diagonal) + DIAGONAL * diagonal;
+    }
+
+    /**
+     * Scale a lower bound on the distance between two nodes. The bound is scaled by slightly less than
+     * {@link #CARDINAL} and rounded down, so a bound on a path of cardinal and diagonal steps stays a bound on the
+     * scaled cost of that path. An infinite bound scales to {@link Integer#MAX_VALUE}.
+     */
+    public static int estimate(double estimate) {
+        return (int) (estimate * ESTIMATE_SCALE);
+    }
+}
@@ -0,0 +1,48 @@
+package DataStructures.graph;
+
+/**
+ * A reusable cursor over the neighbours of a node, which yields the index of each neighbour together with the
+ * weight of the edge leading to it.
+ *
+ * A cursor is created once with {@link Graph#neighbourCursor()} and moved to a node with {@link #reset(int)}, so
+ * a search can visit the neighbours of every node it expands without allocating iterators, edges or boxed
+ * values:
+ * <pre>
+ *     cursor.reset(index);
+ *     while (cursor.next()) {
+ *         int m = cursor.index();
+ *         double weight = cursor.cost();
+ *     }
+ * </pre>
+ * Neighbours are visited in the same order as {@link Graph#getNeigbours(Node)} iterates them. A cursor is not
+ * thread safe; each thread or agent should own its own.
+ */
+public interface NeighbourCursor {
+
+    /**
+     * Move the cursor to just before the first neighbour of a node.
+     * @param node the index of the node whose neighbours to visit
+     */
+    void reset(int node);
+
+    /**
+     * Advance to the next neighbour.
+     * @return true if there is another neighbour, false once every neighbour has been visited
+     */
+    boolean next();
+
+    /**
+     * Returns the index of the current neighbour.
+     */
+    int index();
+
+    /**
+     * Returns the weight of the edge from the node the cursor was reset to, to the current neighbour.
+     */
+    double cost();
+
+    /**
+     * Returns the weight of the edge to the current neighbour scaled to an integer, see {@link IntegerCosts}.
+     */
+    int integerCost();
+}
@@ -1,41 +1,22 @@
 package DataStructures.graph;
 
-import Algorithm.Agent;
-import Error.CollisionException;
-
 public class Node{
 
+    /**
+     * What a diagonal step saves over a cardinal step in each direction, sqrt(2) - 2.
+     */
+    private static final double DIAGONAL_SAVING = Math.sqrt(2) - 2;
+
     private final String element;
     private final int x;
     private final int y;
-    private Agent occupier = null;
+    private final int index;
 
-    public Node(String element, int x, int y) {
+    public Node(String element, int x, int y, int index) {
         this.element = element;
         this.x = x;
         this.y = y;
-    }
-
-    // ------------------------------------------------------------------------------------------
-
-    public Agent getAgent() {
-        return this.occupier;
-    }
-
-    public boolean isOccupied() {
-        return occupier != null;
-    }
-
-    public void enter(Agent agent) {
-        if (this.occupier != null) {
-            throw new CollisionException("Vertex collision at " + this.toString() +
-                    "between occupying agent " + this.occupier +  " and " + agent);
-        }
-        this.occupier = agent;
-    }
-
-    public void leave() {
-        this.occupier = null;
+        this.index = index;
     }
 
     // ------------------------------------------------------------------------------------------
@@ -48,6 +29,15 @@ public class Node{
         return y;
     }
 
+    /**
+     * Returns the dense index the owning graph assigned to this node. Indexes lie in the range
+     * [0, {@link Graph#indexBound()}) and can be used to key primitive arrays instead of hash maps.
+     * @return the index of this node in its graph
+     */
+    public int getIndex() {
+        return index;
+    }
+
     public double euclideanDistance(Node other) {
         int dx = x - other.getX();
         int dy = y - other.getY();
@@ -57,7 +47,7 @@ public class Node{
     public double octileDistance(Node other) {
         int dx = Math.abs(x - other.getX());
         int dy = Math.abs(y - other.getY());
-        return (dx + dy) + (Math.sqrt(2) - 2) * Math.min(dx, dy);
+        return (dx + dy) + DIAGONAL_SAVING * Math.min(dx, dy);
     }
 
     // ------------------------------------------------------------------------------------------